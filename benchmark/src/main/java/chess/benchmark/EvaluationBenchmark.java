@@ -0,0 +1,72 @@
+package chess.benchmark;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.MoveGenerator;
+import chess.MoveList;
+import chess.engine.Evaluation;
+import chess.engine.IncrementalEvaluation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluating every child of a position, the way the search evaluates leaves:
+ * rescanning the board after each move against updating the sums with it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluationBenchmark {
+
+    @Param({"opening", "middlegame", "endgame"})
+    public String position;
+
+    private ChessBoard board;
+    private ChessGame.TeamColor color;
+    private final MoveList moves = new MoveList();
+    private final IncrementalEvaluation evaluation = new IncrementalEvaluation();
+
+    @Setup
+    public void setUp() {
+        ChessGame game = Fixtures.game(position);
+        board = game.getBoard().cloneBoard();
+        color = game.getTeamTurn();
+        MoveGenerator.generateLegal(board, color, moves);
+        evaluation.reset(board);
+    }
+
+    @Benchmark
+    public void rescan(Blackhole blackhole) {
+        for (int i = 0; i < moves.size(); i++) {
+            board.makeMove(moves.get(i));
+            blackhole.consume(Evaluation.evaluate(board, color.opponent()));
+            board.unmakeMove();
+        }
+    }
+
+    @Benchmark
+    public void incremental(Blackhole blackhole) {
+        for (int i = 0; i < moves.size(); i++) {
+            evaluation.makeMove(board, moves.get(i));
+            board.makeMove(moves.get(i));
+            blackhole.consume(evaluation.evaluate(board, color.opponent()));
+            board.unmakeMove();
+            evaluation.unmakeMove();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package chess.benchmark;
+
+import chess.ChessGame;
+
+/**
+ * Positions the benchmarks run against, one per phase of the game so that a
+ * change which only helps crowded or only helps empty boards shows up.
+ */
+public final class Fixtures {
+
+    /** Ruy Lopez after 3...a6: full board, few open lines. */
+    public static final String OPENING = "r1bqkbnr/1ppp1ppp/p1n5/1B2p3/4P3/5N2/PPPP1PPP/RNBQK2R w - - 0 4";
+    /** Open middlegame with every piece type active and many captures available. */
+    public static final String MIDDLEGAME = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w - - 0 1";
+    /** Rook and pawn endgame with long sliding moves. */
+    public static final String ENDGAME = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1";
+
+    private Fixtures() {
+    }
+
+    /**
+     * @param name "opening", "middlegame" or "endgame"
+     * @return a new game set up at that fixture
+     */
+    public static ChessGame game(String name) {
+        return ChessGame.fromFen(switch (name) {
+            case "opening" -> OPENING;
+            case "middlegame" -> MIDDLEGAME;
+            case "endgame" -> ENDGAME;
+            default -> throw new IllegalArgumentException("Unknown fixture: " + name);
+        });
+    }
+}
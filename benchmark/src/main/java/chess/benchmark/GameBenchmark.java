@@ -0,0 +1,105 @@
+package chess.benchmark;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The ChessGame calls the server makes for every MAKE_MOVE request.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+
+    @Param({"opening", "middlegame", "endgame"})
+    public String position;
+
+    private ChessGame game;
+    private ChessMove move;
+    private List<ChessPosition> pieces;
+
+    @Setup
+    public void setUp() {
+        game = Fixtures.game(position);
+        move = game.validMoves().iterator().next();
+        pieces = new ArrayList<>();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = game.getBoard().getPiece(ChessPosition.of(row, col));
+                if (piece != null && piece.getTeamColor() == game.getTeamTurn()) {
+                    pieces.add(ChessPosition.of(row, col));
+                }
+            }
+        }
+    }
+
+    /**
+     * Baseline for {@link #makeMove}: the copy it has to make so every call
+     * starts from the same position.
+     */
+    @Benchmark
+    public ChessGame copyGame() {
+        return copy(game);
+    }
+
+    @Benchmark
+    public ChessGame makeMove() throws InvalidMoveException {
+        ChessGame copy = copy(game);
+        copy.makeMove(move);
+        return copy;
+    }
+
+    /**
+     * validMoves for every piece of the side to move, the way a client
+     * highlighting moves or a server validating them calls it.
+     */
+    @Benchmark
+    public void validMoves(Blackhole blackhole) {
+        for (ChessPosition piece : pieces) {
+            blackhole.consume(game.validMoves(piece));
+        }
+    }
+
+    @Benchmark
+    public boolean isInCheck() {
+        return game.isInCheck(game.getTeamTurn());
+    }
+
+    /**
+     * Reads the status cached on the game; the search that fills it is timed
+     * as part of {@link #makeMove}.
+     */
+    @Benchmark
+    public boolean isInCheckmate() {
+        return game.isInCheckmate(game.getTeamTurn());
+    }
+
+    private static ChessGame copy(ChessGame game) {
+        ChessGame copy = new ChessGame();
+        copy.setBoard(game.getBoard().cloneBoard());
+        copy.setTeamTurn(game.getTeamTurn());
+        return copy;
+    }
+}
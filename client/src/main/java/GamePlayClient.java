@@ -41,6 +41,7 @@ public class GamePlayClient implements WebSocketFacade.GameMessageHandler{
                 case "help" -> printHelp();
                 case "redraw" -> redrawBoard();
                 case "highlight" -> highlightMoves();
+                case "hanging" -> highlightHanging();
                 case "move" -> makeMove();
                 case "resign" -> resign();
                 case "leave" -> {
@@ -58,6 +59,7 @@ public class GamePlayClient implements WebSocketFacade.GameMessageHandler{
                 - help
                 - redraw
                 - highlight
+                - hanging
                 - move
                 - resign
                 - leave
@@ -105,6 +107,22 @@ public class GamePlayClient implements WebSocketFacade.GameMessageHandler{
         drawBoardHighlights(board, orientation, highlight);
     }
 
+    private void highlightHanging(){
+        ChessGame.TeamColor color = orientation == null ? ChessGame.TeamColor.WHITE : orientation;
+        long hanging = StaticExchange.hangingPieces(board, color);
+        if(hanging == 0){
+            System.out.println("None of your pieces are hanging");
+            return;
+        }
+
+        boolean[][] highlight = new boolean[8][8];
+        for (; hanging != 0; hanging &= hanging - 1) {
+            ChessPosition pos = ChessPosition.fromSquare(Long.numberOfTrailingZeros(hanging));
+            highlight[pos.getRow()-1][pos.getColumn()-1] = true;
+        }
+        drawBoardHighlights(board, color, highlight);
+    }
+
     private void makeMove(){
         System.out.print("Enter move (e.g., a2 a3): ");
         String [] parts = scanner.nextLine().trim().split("\\s+");
@@ -145,7 +163,7 @@ public class GamePlayClient implements WebSocketFacade.GameMessageHandler{
         int col = file - 'a' + 1;
         int row = rank - '1' + 1;
 
-        return new ChessPosition(row, col);
+        return ChessPosition.of(row, col);
     }
 
     private void resign(){
@@ -221,7 +239,7 @@ public class GamePlayClient implements WebSocketFacade.GameMessageHandler{
 
             for (int c = 0; c < 8; c++){
                 int col = orientation == ChessGame.TeamColor.WHITE ? c : 7-c;
-                ChessPiece piece = board.getPiece(new ChessPosition(row+1, col+1));
+                ChessPiece piece = board.getPiece(ChessPosition.of(row+1, col+1));
 
                 boolean lightSquare = (row + col) % 2 == 1;
                 String bg = lightSquare ? SET_BG_COLOR_LIGHT_GREY : SET_BG_COLOR_DARK_GREY;
@@ -266,7 +284,7 @@ public class GamePlayClient implements WebSocketFacade.GameMessageHandler{
             System.out.print((row + 1) + " ");
             for (int c = 0; c < 8; c++) {
                 int col = orientation == ChessGame.TeamColor.WHITE ? c : 7 - c;
-                ChessPiece piece = board.getPiece(new ChessPosition(row + 1, col + 1));
+                ChessPiece piece = board.getPiece(ChessPosition.of(row + 1, col + 1));
                 boolean isHighlighted = highlights[row][col];
                 String back;
                 if (isHighlighted) {
@@ -1,4 +1,5 @@
 import chess.ChessBoard;
+import chess.ChessGame;
 import client.ServerFacade;
 import client.websocket.WebSocketFacade;
 import requests.CreateGameRequest;
@@ -31,7 +32,7 @@ public class PostLoginClient {
 
             switch (command){
                 case "help" -> printHelp();
-                case "list" -> listGames(authToken);
+                case "list" -> listGames(authToken, parts);
                 case "create" -> createGame(authToken, parts);
                 case "join" -> joinGame(authToken, parts);
                 case "observe" -> observeGame(authToken, parts);
@@ -47,7 +48,7 @@ public class PostLoginClient {
     private void printHelp(){
         System.out.println("""
                     Commands:
-                    - list
+                    - list [normal|check|checkmate|stalemate|repetition|fifty_move]
                     - create
                     - join
                     - observe
@@ -55,9 +56,21 @@ public class PostLoginClient {
                     """);
     }
 
-    private void listGames(String authToken){
+    private void listGames(String authToken, String[] parts){
         try{
-            ListGamesResponse response = server.listGames(authToken);
+            ListGamesResponse response;
+            if (parts.length == 2){
+                ChessGame.GameStatus status;
+                try{
+                    status = ChessGame.GameStatus.valueOf(parts[1].toUpperCase());
+                } catch (IllegalArgumentException e){
+                    System.out.println("Usage: list [normal|check|checkmate|stalemate|repetition|fifty_move]");
+                    return;
+                }
+                response = server.listGames(authToken, status);
+            } else{
+                response = server.listGames(authToken);
+            }
             System.out.println("Games:");
             fakeID.clear();
             for (var i = 1; i <= response.games().size(); i++){
@@ -1,6 +1,6 @@
 package client;
 
-import com.google.gson.Gson;
+import serialization.Serializer;
 import exceptions.ServiceException;
 import requests.*;
 import responses.*;
@@ -61,6 +61,12 @@ public class ServerFacade {
         return handleResponse(response, ListGamesResponse.class);
     }
 
+    public ListGamesResponse listGames(String authToken, chess.ChessGame.GameStatus status) throws ServiceException {
+        var request = buildRequest("GET", "/game?status=" + status, null, authToken);
+        var response = sendRequest(request);
+        return handleResponse(response, ListGamesResponse.class);
+    }
+
     public void clearDb() throws ServiceException {
         var request = buildRequest("DELETE", "/db", null, null);
         var response = sendRequest(request);
@@ -86,7 +92,7 @@ public class ServerFacade {
         if (request == null){
             return BodyPublishers.noBody();
         }
-        return BodyPublishers.ofString((new Gson()).toJson(request));
+        return BodyPublishers.ofString(Serializer.GSON.toJson(request));
     }
 
     private HttpResponse<String> sendRequest(HttpRequest request) throws ServiceException {
@@ -109,12 +115,12 @@ public class ServerFacade {
             return null;
         }
 
-        return new Gson().fromJson(response.body(), type);
+        return Serializer.GSON.fromJson(response.body(), type);
     }
 
     private String extractMessage(String jsonError) {
         try{
-            var m = new Gson().fromJson(jsonError, Map.class);
+            var m = Serializer.GSON.fromJson(jsonError, Map.class);
             return(String) m.get("message");
         } catch (Exception ex){
             return "unknown error";
@@ -2,6 +2,7 @@ package client.websocket;
 
 import chess.ChessGame;
 import com.google.gson.Gson;
+import serialization.Serializer;
 import websocket.commands.UserGameCommand;
 import websocket.messages.ServerMessage;
 
@@ -12,7 +13,7 @@ import java.util.concurrent.CompletionStage;
 
 
 public class WebSocketFacade implements WebSocket.Listener {
-    private final Gson gson = new Gson();
+    private final Gson gson = Serializer.GSON;
     private WebSocket webSocket;
     private final GameMessageHandler handler;
     private boolean gameIsOver = false;
@@ -56,7 +57,13 @@ public class WebSocketFacade implements WebSocket.Listener {
         ServerMessage msg = gson.fromJson(json, ServerMessage.class);
 
         switch (msg.getServerMessageType()){
-            case LOAD_GAME -> handler.onLoadGame(msg);
+            case LOAD_GAME -> {
+                var status = msg.getGame() == null ? null : msg.getGame().getGameStatus();
+                if (status != null && status.isGameOver()) {
+                    gameIsOver = true;
+                }
+                handler.onLoadGame(msg);
+            }
             case NOTIFICATION ->  {
                 handler.onNotification(msg.getMessage());
 
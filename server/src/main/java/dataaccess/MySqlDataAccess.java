@@ -1,14 +1,20 @@
 package dataaccess;
 
 import chess.ChessGame;
+import chess.GameCodec;
 import com.google.gson.Gson;
 import datamodel.AuthTokenData;
 import datamodel.GameData;
 import datamodel.UserData;
 import exceptions.ServiceException;
 import org.mindrot.jbcrypt.BCrypt;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import serialization.Serializer;
 
 import javax.xml.crypto.Data;
+import java.sql.Connection;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -17,7 +23,8 @@ import static java.sql.Statement.RETURN_GENERATED_KEYS;
 
 public class MySqlDataAccess implements DataAccess {
 
-    private final Gson gson = new Gson();
+    private static final Logger LOG = LoggerFactory.getLogger(MySqlDataAccess.class);
+    private static final Gson GSON = Serializer.GSON;
 
     public MySqlDataAccess(){
         try {
@@ -48,6 +55,8 @@ gameName VARCHAR(100) NOT NULL,
 whiteUsername VARCHAR(50),
 blackUsername VARCHAR(50),
 gameState TEXT,
+gameData BLOB,
+gameStatus VARCHAR(20) NOT NULL DEFAULT 'NORMAL',
 gameOver BOOLEAN DEFAULT FALSE,
 winner VARCHAR(50),
 FOREIGN KEY (whiteUsername) REFERENCES users(username),
@@ -61,12 +70,98 @@ FOREIGN KEY (blackUsername) REFERENCES users(username))
                     ps.executeUpdate();
                 }
             }
+            // tables created before these columns existed
+            addColumnIfMissing(conn, "games", "gameStatus", "VARCHAR(20) NOT NULL DEFAULT 'NORMAL'");
+            addColumnIfMissing(conn, "games", "gameData", "BLOB");
+            migrateJsonGames(conn);
 
         } catch (SQLException e){
             throw new DataAccessException("Unable to create tables.", e);
         }
     }
 
+    /**
+     * Copies games stored as Gson JSON in gameState into the binary gameData
+     * column. The JSON is only dropped once the bytes that reached the
+     * database are the ones that were checked to decode back to the same
+     * game. Rows that fail to convert are left alone and keep loading
+     * through the JSON fallback in readGameData.
+     */
+    private void migrateJsonGames(Connection conn) throws SQLException {
+        var select = "SELECT id, gameState FROM games WHERE gameData IS NULL AND gameState IS NOT NULL";
+        var copy = "UPDATE games SET gameData=? WHERE id=?";
+        var dropJson = "UPDATE games SET gameState=NULL WHERE id=? AND gameData=?";
+        try (var query = conn.prepareStatement(select);
+             var rs = query.executeQuery();
+             var copyPs = conn.prepareStatement(copy);
+             var dropPs = conn.prepareStatement(dropJson)) {
+            while (rs.next()) {
+                int id = rs.getInt("id");
+                byte[] bytes = encodeLegacyGame(id, rs.getString("gameState"));
+                if (bytes == null) {
+                    continue;
+                }
+                copyPs.setBytes(1, bytes);
+                copyPs.setInt(2, id);
+                copyPs.executeUpdate();
+
+                dropPs.setInt(1, id);
+                dropPs.setBytes(2, bytes);
+                if (dropPs.executeUpdate() == 0) {
+                    LOG.warn("Game {} kept its JSON: the stored game data does not match what was written", id);
+                }
+            }
+        }
+    }
+
+    /**
+     * Encodes a game stored as Gson JSON for the gameData column.
+     *
+     * @return the encoded game, or null if the JSON cannot be read, holds no
+     * pieces, or does not decode back to the same game
+     */
+    static byte[] encodeLegacyGame(int id, String json) {
+        ChessGame game = readLegacyGame(id, json);
+        if (game == null) {
+            return null;
+        }
+        if (game.getBoard().getOccupancy() == 0) {
+            LOG.warn("Game {} was not migrated: its JSON reads as an empty board", id);
+            return null;
+        }
+        byte[] bytes = GameCodec.encode(game);
+        ChessGame decoded = GameCodec.decode(bytes);
+        if (!decoded.equals(game) || !decoded.toFen().equals(game.toFen())
+                || !decoded.getMoveHistory().equals(game.getMoveHistory())) {
+            LOG.warn("Game {} was not migrated: it does not survive encoding", id);
+            return null;
+        }
+        return bytes;
+    }
+
+    static ChessGame readLegacyGame(int id, String json) {
+        if (json == null || json.isBlank()) {
+            return null;
+        }
+        try {
+            return GSON.fromJson(json, ChessGame.class);
+        } catch (RuntimeException ex) {
+            LOG.warn("Game {} has unreadable JSON", id, ex);
+            return null;
+        }
+    }
+
+    private void addColumnIfMissing(Connection conn, String table, String column, String definition) throws SQLException {
+        try (var rs = conn.getMetaData().getColumns(conn.getCatalog(), null, table, column)) {
+            if (rs.next()) {
+                return;
+            }
+        }
+        try (var ps = conn.prepareStatement("ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition)) {
+            ps.executeUpdate();
+        }
+    }
+
     @Override
     public void clear() {
         try(var conn = DatabaseManager.getConnection();
@@ -173,13 +268,13 @@ FOREIGN KEY (blackUsername) REFERENCES users(username))
 
     public GameData addGame(String gameName) {
         ChessGame initialGame = new ChessGame();
-        String gameJson = gson.toJson(initialGame);
 
-        var sql = "INSERT INTO games (gameName, gameState, whiteUsername, blackUsername) VALUES (?, ?, NULL, NULL)";
+        var sql = "INSERT INTO games (gameName, gameData, gameStatus, whiteUsername, blackUsername) VALUES (?, ?, ?, NULL, NULL)";
         try (var conn = DatabaseManager.getConnection();
              var ps = conn.prepareStatement(sql, RETURN_GENERATED_KEYS)){
             ps.setString(1, gameName);
-            ps.setString(2, gameJson);
+            ps.setBytes(2, GameCodec.encode(initialGame));
+            ps.setString(3, initialGame.getGameStatus().name());
             ps.executeUpdate();
             try(var rs = ps.getGeneratedKeys()){
                 if(rs.next()){
@@ -204,22 +299,7 @@ FOREIGN KEY (blackUsername) REFERENCES users(username))
                 if(!rs.next()) {
                     return null;
                 }
-                var whiteUsername = rs.getString("whiteUsername");
-                var blackUsername = rs.getString("blackUsername");
-                var gameStateJson = rs.getString("gameState");
-                ChessGame game = null;
-                if (gameStateJson != null && !gameStateJson.isBlank()) {
-                    try{
-                        game = gson.fromJson(gameStateJson, ChessGame.class);
-                    } catch (Exception ex) {
-                        game = new ChessGame();
-                    }
-                } else{
-                    game = new ChessGame();
-                }
-                boolean gameOver = rs.getBoolean("gameOver");
-                String winner = rs.getString("winner");
-                return new GameData(rs.getInt("id"), rs.getString("gameName"), whiteUsername, blackUsername, game, gameOver, winner);
+                return readGameData(rs);
             }
         } catch (SQLException e) {
             throw new RuntimeException("Unable to retrieve game.", e);
@@ -228,6 +308,30 @@ FOREIGN KEY (blackUsername) REFERENCES users(username))
         }
     }
 
+    private GameData readGameData(ResultSet rs) throws SQLException {
+        var whiteUsername = rs.getString("whiteUsername");
+        var blackUsername = rs.getString("blackUsername");
+        var gameBytes = rs.getBytes("gameData");
+        int id = rs.getInt("id");
+        ChessGame game = null;
+        if (gameBytes != null) {
+            try{
+                game = GameCodec.decode(gameBytes);
+            } catch (IllegalArgumentException ex) {
+                LOG.warn("Game {} has unreadable game data", id, ex);
+            }
+        }
+        if (game == null) {
+            game = readLegacyGame(id, rs.getString("gameState"));
+        }
+        if (game == null) {
+            game = new ChessGame();
+        }
+        boolean gameOver = rs.getBoolean("gameOver");
+        String winner = rs.getString("winner");
+        return new GameData(id, rs.getString("gameName"), whiteUsername, blackUsername, game, gameOver, winner);
+    }
+
     public void joinGame(int gameId, String username, String color) {
         String column = color.equalsIgnoreCase("WHITE") ? "whiteUsername" : "blackUsername";
         var sql = "UPDATE games SET " + column + " =? WHERE id=?";
@@ -248,12 +352,11 @@ FOREIGN KEY (blackUsername) REFERENCES users(username))
 
     public void updateGame(int gameID, chess.ChessGame game) throws ServiceException {
         try(var conn = DatabaseManager.getConnection()){
-            String gameJson = new Gson().toJson(game);
-
-            String sql = "UPDATE games SET gameState=? WHERE id=?";
+            String sql = "UPDATE games SET gameData=?, gameState=NULL, gameStatus=? WHERE id=?";
             try (var ps = conn.prepareStatement(sql)){
-                ps.setString(1,gameJson);
-                ps.setInt(2, gameID);
+                ps.setBytes(1, GameCodec.encode(game));
+                ps.setString(2, game.getGameStatus().name());
+                ps.setInt(3, gameID);
                 ps.executeUpdate();
             }
         } catch (Exception ex) {
@@ -268,22 +371,26 @@ FOREIGN KEY (blackUsername) REFERENCES users(username))
              var ps = conn.prepareStatement(sql);
              var rs = ps.executeQuery()){
             while(rs.next()){
-                var whiteUsername = rs.getString("whiteUsername");
-                var blackUsername = rs.getString("blackUsername");
-                var gameStateJson = rs.getString("gameState");
-                ChessGame game = null;
-                if (gameStateJson != null && !gameStateJson.isBlank()) {
-                    try{
-                        game = gson.fromJson(gameStateJson, ChessGame.class);
-                    }catch (Exception ex) {
-                        game = new ChessGame();
-                    }
-                }else{
-                    game = new ChessGame();
+                games.add(readGameData(rs));
+            }
+        }catch (SQLException e){
+            throw new RuntimeException("Unable to retrieve games.", e);
+        } catch (DataAccessException e) {
+            throw new RuntimeException(e);
+        }
+        return games;
+    }
+
+    public Collection<GameData> getGamesByStatus(ChessGame.GameStatus status) {
+        var sql = "SELECT * FROM games WHERE gameStatus = ?";
+        var games = new ArrayList<GameData>();
+        try(var conn = DatabaseManager.getConnection();
+            var ps = conn.prepareStatement(sql)){
+            ps.setString(1, status.name());
+            try (var rs = ps.executeQuery()){
+                while(rs.next()){
+                    games.add(readGameData(rs));
                 }
-                boolean gameOver = rs.getBoolean("gameOver");
-                String winner = rs.getString("winner");
-                games.add(new GameData(rs.getInt("id"), rs.getString("gameName"), whiteUsername, blackUsername, game,  gameOver, winner));
             }
         }catch (SQLException e){
             throw new RuntimeException("Unable to retrieve games.", e);
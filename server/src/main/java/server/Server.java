@@ -13,7 +13,7 @@ import service.GameService;
 import exceptions.ServiceException;
 import chess.ChessGame;
 import websocket.messages.ServerMessage;
-import com.google.gson.Gson;
+import serialization.Serializer;
 
 import java.net.http.WebSocket;
 import java.rmi.ServerException;
@@ -26,7 +26,7 @@ public class Server {
     private final UserService userService;
     private final GameService gameService;
     private final MySqlDataAccess dataAccess;
-    private final Gson gson =  new Gson();
+    private final Gson gson = Serializer.GSON;
 
     private final Map<WsContext, Integer> clientGames = new ConcurrentHashMap<>();
     private final Map<WsContext, String> clientTokens = new ConcurrentHashMap<>();
@@ -54,7 +54,7 @@ public class Server {
             });
 
             ws.onMessage(ctx -> {
-                var cmd = new Gson().fromJson(ctx.message(), websocket.commands.UserGameCommand.class);
+                var cmd = gson.fromJson(ctx.message(), websocket.commands.UserGameCommand.class);
                 handleWsCommand(ctx, cmd);
             });
 
@@ -83,7 +83,7 @@ public class Server {
 
 
                     var msg = websocket.messages.ServerMessage.loadGame(state.getGame());
-                    ctx.send(new Gson().toJson(msg));
+                    ctx.send(gson.toJson(msg));
 
                     broadcastToOthers(gameID, ctx, ServerMessage.notification(username + " joined the game as " + color));
 
@@ -91,19 +91,21 @@ public class Server {
                 }
 
                 case MAKE_MOVE -> {
-                    gameService.makeMove(token, gameID, cmd.getMove());
+                    ChessGame game = gameService.makeMove(token, gameID, cmd.getMove());
 
-                    var state = gameService.getGameState(token, gameID);
-                    ChessGame game = state.getGame();
                     var turn = game.getTeamTurn();
                     String username = findUsername(token);
                     broadcastToOthers(gameID, ctx, ServerMessage.notification(username + " moved: " + cmd.getMove()));
-                    broadcastToGame(gameID, ServerMessage.loadGame(state.getGame()));
-
-                    if(game.isInCheckmate(turn)){
-                        broadcastToGame(gameID, ServerMessage.notification(turn + " is in checkmate"));
-                    }else if(game.isInCheck(turn)){
-                        broadcastToGame(gameID, ServerMessage.notification(turn + " is in check"));
+                    broadcastToGame(gameID, ServerMessage.loadGame(game));
+
+                    // status was computed once by makeMove, no need to search the board again
+                    switch (game.getGameStatus()) {
+                        case CHECKMATE -> broadcastToGame(gameID, ServerMessage.notification(turn + " is in checkmate"));
+                        case STALEMATE -> broadcastToGame(gameID, ServerMessage.notification(turn + " is in stalemate"));
+                        case CHECK -> broadcastToGame(gameID, ServerMessage.notification(turn + " is in check"));
+                        case REPETITION -> broadcastToGame(gameID, ServerMessage.notification("Draw by threefold repetition"));
+                        case FIFTY_MOVE -> broadcastToGame(gameID, ServerMessage.notification("Draw by the fifty move rule"));
+                        default -> { }
                     }
 
                 }
@@ -130,12 +132,12 @@ public class Server {
             }
         } catch (Exception ex) {
             var msg = websocket.messages.ServerMessage.error(ex.getMessage());
-            ctx.send(new Gson().toJson(msg));
+            ctx.send(gson.toJson(msg));
         }
     }
 
     private void broadcastToGame(int gameID, websocket.messages.ServerMessage msg) {
-        String json = new Gson().toJson(msg);
+        String json = gson.toJson(msg);
 
         for (var entry : clientGames.entrySet()) {
             WsContext ws = entry.getKey();
@@ -157,12 +159,11 @@ public class Server {
     }
 
     private void register(Context ctx) { //handler
-        var serializer = new Gson();
         try {
-            var user = serializer.fromJson(ctx.body(), UserData.class);
+            var user = gson.fromJson(ctx.body(), UserData.class);
             var registrationResponse = userService.register(user);
 
-            ctx.result(serializer.toJson(registrationResponse));
+            ctx.result(gson.toJson(registrationResponse));
 
         }catch (ServiceException ex){
             ctx.status(ex.getStatusCode()).result("{ \"message\": \"Error: " + ex.getMessage() + "\" }");
@@ -173,9 +174,8 @@ public class Server {
     }
 
     public void login(Context ctx){
-        var serializer = new Gson();
         try {
-            var user = serializer.fromJson(ctx.body(), UserData.class);
+            var user = gson.fromJson(ctx.body(), UserData.class);
 
             if (user.username() == null || user.password() == null) {
                 ctx.status(400).result("{ \"message\": \"Error: %s\"}");
@@ -183,7 +183,7 @@ public class Server {
             }
 
             var loginResponse = userService.login(user);
-            ctx.status(200).result(serializer.toJson(loginResponse));
+            ctx.status(200).result(gson.toJson(loginResponse));
         }catch (ServiceException ex){
             ctx.status(ex.getStatusCode()).result("{ \"message\": \"Error: " + ex.getMessage() + "\" }");
         }catch (Exception ex){
@@ -211,10 +211,9 @@ public class Server {
     }
 
     public void createGame(Context ctx){
-        var serializer = new Gson();
         try{
             var token = ctx.header("Authorization");
-            var body = serializer.fromJson(ctx.body(), java.util.Map.class);
+            var body = gson.fromJson(ctx.body(), java.util.Map.class);
             var name = (String)body.get("gameName");
             if(name == null){
                 ctx.status(400).result("{ \"message\": \"Error: bad request\" }");
@@ -231,10 +230,9 @@ public class Server {
     }
 
     public void joinGame(Context ctx){
-        var serializer = new Gson();
         try{
             var token  = ctx.header("Authorization");
-            var body = serializer.fromJson(ctx.body(), java.util.Map.class);
+            var body = gson.fromJson(ctx.body(), java.util.Map.class);
             if (body.get("gameID") == null || body.get("playerColor") == null){
                 ctx.status(400).result("{ \"message\": \"Error: bad request\" }");
                 return;
@@ -253,13 +251,25 @@ public class Server {
     }
 
     public void listGames(Context ctx){
-        var serializer = new Gson();
         try{
             var token = ctx.header("Authorization");
-            var games = gameService.listGames(token);
+            var statusParam = ctx.queryParam("status");
+            java.util.Collection<GameData> games;
+            if(statusParam == null || statusParam.isEmpty()){
+                games = gameService.listGames(token);
+            } else{
+                ChessGame.GameStatus status;
+                try{
+                    status = ChessGame.GameStatus.valueOf(statusParam.toUpperCase());
+                } catch (IllegalArgumentException ex){
+                    ctx.status(400).result("{ \"message\": \"Error: bad request\" }");
+                    return;
+                }
+                games = gameService.listGames(token, status);
+            }
             var response =  new java.util.HashMap<String, Object>();
             response.put("games", games);
-            ctx.status(200).result(serializer.toJson(response));
+            ctx.status(200).result(gson.toJson(response));
 
         } catch (ServiceException ex){
             ctx.status(ex.getStatusCode()).result("{ \"message\": \"Error: " + ex.getMessage() + "\" }");
@@ -269,7 +279,6 @@ public class Server {
     }
 
     public void getGameState(Context ctx){
-        var serializer = new Gson();
         try{
             var token = ctx.header("Authorization");
             if(token == null || token.isEmpty()){
@@ -295,9 +304,10 @@ public class Server {
             ChessGame chessGame = gameData.getGame();
             response.put("board", chessGame.getBoard());
             response.put("turn", chessGame.getTeamTurn());
-            response.put("gameOver", false);
+            response.put("status", chessGame.getGameStatus());
+            response.put("gameOver", gameData.isGameOver() || chessGame.getGameStatus().isGameOver());
 
-            ctx.status(200).result(serializer.toJson(response));
+            ctx.status(200).result(gson.toJson(response));
         }catch (ServiceException ex){
             ctx.status(ex.getStatusCode()).result("{ \"message\": \"Error: " + ex.getMessage() + "\" }");
         }catch (Exception ex){
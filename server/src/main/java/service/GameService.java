@@ -67,6 +67,15 @@ public class GameService {
         return dataAccess.getAllGames();
     }
 
+    public java.util.Collection<GameData> listGames(String token, ChessGame.GameStatus status) throws ServiceException {
+        AuthTokenData auth = dataAccess.getAuthToken(token);
+        if (auth == null){
+            throw new UnauthorizedException();
+        }
+
+        return dataAccess.getGamesByStatus(status);
+    }
+
     public GameData getGameState(String token, int gameID) throws ServiceException {
         var auth = dataAccess.getAuthToken(token);
         if(auth == null){
@@ -79,7 +88,7 @@ public class GameService {
         return game;
     }
 
-    public void makeMove(String token, int gameID, chess.ChessMove move) throws ServiceException {
+    public ChessGame makeMove(String token, int gameID, chess.ChessMove move) throws ServiceException, DataAccessException {
         AuthTokenData auth = dataAccess.getAuthToken(token);
         if (auth == null){
             throw new UnauthorizedException();
@@ -108,7 +117,22 @@ public class GameService {
             throw new BadRequestException();
         }
 
+        // mate, stalemate and draws end the game the same way resigning does
+        var status = chessGame.getGameStatus();
+        String winner = null;
+        if (status.isGameOver()){
+            if (status == ChessGame.GameStatus.CHECKMATE){
+                winner = username;
+            }
+            chessGame.setGameOver(true);
+            chessGame.setWinner(winner);
+        }
+
         dataAccess.updateGame(gameID, chessGame);
+        if (status.isGameOver()){
+            dataAccess.setGameOver(gameID, true, winner);
+        }
+        return chessGame;
     }
 
     public void resign(String token, int gameID) throws ServiceException, DataAccessException {
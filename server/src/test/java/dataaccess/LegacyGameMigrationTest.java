@@ -0,0 +1,52 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.GameCodec;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the conversion of gameState JSON rows to gameData without a database.
+ */
+class LegacyGameMigrationTest {
+
+    // written by the baseline model through plain Gson reflection after 1. e4 d5 2. exd5
+    private static String baselineJson() throws IOException {
+        try (InputStream in = LegacyGameMigrationTest.class.getResourceAsStream("baseline-game.json")) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).trim();
+        }
+    }
+
+    @Test
+    @DisplayName("Baseline JSON row migrates with its pieces")
+    public void baselineRow() throws IOException {
+        byte[] bytes = MySqlDataAccess.encodeLegacyGame(1, baselineJson());
+        assertNotNull(bytes);
+
+        ChessGame game = GameCodec.decode(bytes);
+        assertEquals("rnbqkbnr/ppp1pppp/8/3P4/8/8/PPPP1PPP/RNBQKBNR", game.getBoard().toFen());
+        assertEquals(ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN),
+                game.getBoard().getPiece(ChessPosition.of(5, 4)));
+        assertEquals(ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING),
+                game.getBoard().getPiece(ChessPosition.of(8, 5)));
+        assertNull(game.getBoard().getPiece(ChessPosition.of(2, 5)));
+        assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+        assertEquals(3, game.getMoveHistory().size());
+    }
+
+    @Test
+    @DisplayName("Rows that do not read as a game are not migrated")
+    public void unreadableRows() {
+        assertNull(MySqlDataAccess.encodeLegacyGame(2, "{\"board\":"));
+        assertNull(MySqlDataAccess.encodeLegacyGame(3, "{\"board\":{\"squares\":[]},\"turn\":\"WHITE\"}"));
+        assertNull(MySqlDataAccess.encodeLegacyGame(4, " "));
+    }
+}
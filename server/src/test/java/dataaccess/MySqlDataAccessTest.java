@@ -1,5 +1,8 @@
 package dataaccess;
 
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
 import datamodel.AuthTokenData;
 import datamodel.GameData;
 import datamodel.UserData;
@@ -192,4 +195,22 @@ class MySqlDataAccessTest {
        assertNull(dao.getUser("user1"));
        assertTrue(dao.getAllGames().isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("game status persisted with the game")
+    public void gameStatusPersisted() throws Exception {
+       var game = dao.addGame("Test1");
+       var chess = new ChessGame();
+       chess.makeMove(new ChessMove(ChessPosition.of(2, 6), ChessPosition.of(3, 6), null));
+       chess.makeMove(new ChessMove(ChessPosition.of(7, 5), ChessPosition.of(5, 5), null));
+       chess.makeMove(new ChessMove(ChessPosition.of(2, 7), ChessPosition.of(4, 7), null));
+       chess.makeMove(new ChessMove(ChessPosition.of(8, 4), ChessPosition.of(4, 8), null));
+       dao.updateGame(game.getGameID(), chess);
+
+       var reloaded = dao.getGame(game.getGameID());
+       assertEquals(ChessGame.GameStatus.CHECKMATE, reloaded.getGame().getGameStatus());
+       assertEquals(chess.getBoard(), reloaded.getGame().getBoard());
+       assertEquals(1, dao.getGamesByStatus(ChessGame.GameStatus.CHECKMATE).size());
+       assertTrue(dao.getGamesByStatus(ChessGame.GameStatus.NORMAL).isEmpty());
+    }
+}
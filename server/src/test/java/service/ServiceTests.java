@@ -1,5 +1,8 @@
 package service;
 
+import chess.ChessMove;
+import chess.ChessPosition;
+import dataaccess.DataAccessException;
 import dataaccess.MySqlDataAccess;
 import datamodel.GameData;
 import datamodel.UserData;
@@ -164,4 +167,26 @@ public class ServiceTests {
     void listGamesFailUnauth(){
         assertThrows(UnauthorizedException.class, () -> gameService.listGames("bad token"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void makeMoveCheckmateEndsGame() throws ServiceException, DataAccessException {
+        var white = userService.register(newUser).authToken();
+        var black = userService.register(new UserData("maddie", "maddie@mail.com", "pwd")).authToken();
+        var game = gameService.createGame(white, "test game");
+        int id = game.getGameID();
+        gameService.joinGame(white, id, "WHITE");
+        gameService.joinGame(black, id, "BLACK");
+
+        // fool's mate
+        gameService.makeMove(white, id, new ChessMove(ChessPosition.of(2, 6), ChessPosition.of(3, 6), null));
+        gameService.makeMove(black, id, new ChessMove(ChessPosition.of(7, 5), ChessPosition.of(5, 5), null));
+        gameService.makeMove(white, id, new ChessMove(ChessPosition.of(2, 7), ChessPosition.of(4, 7), null));
+        gameService.makeMove(black, id, new ChessMove(ChessPosition.of(8, 4), ChessPosition.of(4, 8), null));
+
+        var over = dataAccess.getGame(id);
+        assertTrue(over.isGameOver());
+        assertEquals("maddie", over.getWinner());
+        assertThrows(BadRequestException.class, () -> gameService.makeMove(white, id,
+                new ChessMove(ChessPosition.of(2, 1), ChessPosition.of(3, 1), null)));
+    }
+}
@@ -1,8 +1,15 @@
 package chess;
 
 
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Objects;
+import java.util.List;
 
 /**
  * A chessboard that can hold and rearrange chess pieces.
@@ -10,13 +17,40 @@ import java.util.Objects;
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
+@JsonAdapter(ChessBoard.Adapter.class)
 public class ChessBoard {
-    ChessPiece[][] board = new ChessPiece[8][8];
+    static final int PIECE_TYPES = ChessPiece.PieceType.values().length;
+
+    private static final ChessPosition NO_KING = new ChessPosition(0, 0);
+
+    // one bitboard per color and piece type, bit 0 is a1 and bit 63 is h8
+    private final long[] pieces = new long[2 * PIECE_TYPES];
+    private final long[] colors = new long[2];
+    private long zobristKey;
+
+    // moves applied by makeMove, packed as from | to << 6 | moved << 12 | (captured + 1) << 16
+    private transient int[] undoStack = new int[64];
+    private transient int undoSize;
 
     public ChessBoard() {
         
     }
 
+    /**
+     * @return the 0-63 square index of a position, a1 = 0 and h8 = 63
+     * @throws IllegalArgumentException if the position is off the board
+     */
+    public static int square(ChessPosition position) {
+        if (!position.isOnBoard()) {
+            throw new IllegalArgumentException("Position off the board: " + position);
+        }
+        return (position.getRow() - 1) * 8 + position.getColumn() - 1;
+    }
+
+    static int pieceIndex(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return color.ordinal() * PIECE_TYPES + type.ordinal();
+    }
+
     /**
      * Adds a chess piece to the chessboard
      *
@@ -24,16 +58,92 @@ public class ChessBoard {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        board[position.getRow()-1][position.getColumn()-1] = piece;
+        int square = square(position);
+        clearSquare(square);
+        if(piece != null) {
+            setSquare(square, pieceIndex(piece.getTeamColor(), piece.getPieceType()));
+        }
     }
 
     public void movePiece(ChessMove move) {
-        board[move.getEndPosition().getRow()-1][move.getEndPosition().getColumn()-1] = getPiece(move.getStartPosition());
-        board[move.getStartPosition().getRow()-1][move.getStartPosition().getColumn()-1] =  null;
+        int from = square(move.getStartPosition());
+        int to = square(move.getEndPosition());
+        int moving = pieceIndexAt(from);
+
+        clearSquare(to);
+        clearSquare(from);
 
+        if(moving < 0) {
+            return;
+        }
         if(move.getPromotionPiece() != null) {
-            ChessGame.TeamColor color = getPiece(move.getEndPosition()).getTeamColor();
-            board[move.getEndPosition().getRow()-1][move.getEndPosition().getColumn()-1] = new ChessPiece(color, move.getPromotionPiece());
+            moving = (moving / PIECE_TYPES) * PIECE_TYPES + move.getPromotionPiece().ordinal();
+        }
+        setSquare(to, moving);
+    }
+
+    /**
+     * Applies a move in place, remembering the moved and captured pieces so
+     * the position can be restored exactly with {@link #unmakeMove()}.
+     * Unlike movePiece this does not allocate.
+     *
+     * @param move the move to apply
+     */
+    public void makeMove(ChessMove move) {
+        ChessPiece.PieceType promotion = move.getPromotionPiece();
+        makeMove(square(move.getStartPosition()), square(move.getEndPosition()),
+                promotion == null ? -1 : promotion.ordinal());
+    }
+
+    /**
+     * Applies a {@link PackedMove} in place; see {@link #makeMove(ChessMove)}.
+     */
+    public void makeMove(int move) {
+        makeMove(PackedMove.from(move), PackedMove.to(move), PackedMove.promotion(move));
+    }
+
+    void makeMove(int from, int to, int promotion) {
+        int moving = pieceIndexAt(from);
+        int captured = pieceIndexAt(to);
+
+        if(undoSize == undoStack.length) {
+            undoStack = Arrays.copyOf(undoStack, undoSize * 2);
+        }
+        undoStack[undoSize++] = from | to << 6 | (moving & 0xF) << 12 | (captured + 1) << 16;
+
+        if(moving < 0) {
+            return;
+        }
+        if(captured >= 0) {
+            removePiece(to, captured);
+        }
+        removePiece(from, moving);
+        setSquare(to, promotion < 0 ? moving : (moving / PIECE_TYPES) * PIECE_TYPES + promotion);
+    }
+
+    /**
+     * Takes back the last move applied with makeMove, restoring any captured
+     * piece and undoing any promotion.
+     *
+     * @throws IllegalStateException if there is no move to take back
+     */
+    public void unmakeMove() {
+        if(undoSize == 0) {
+            throw new IllegalStateException("No move to unmake");
+        }
+        int undo = undoStack[--undoSize];
+        int from = undo & 63;
+        int to = (undo >>> 6) & 63;
+        int moving = (undo >>> 12) & 0xF;
+        int captured = (undo >>> 16) - 1;
+
+        if(moving == 0xF) {
+            return;
+        }
+        clearSquare(to);
+        setSquare(from, moving);
+        if(captured >= 0) {
+            setSquare(to, captured);
         }
     }
 
@@ -45,90 +155,250 @@ public class ChessBoard {
      * position
      */
     public ChessPiece getPiece(ChessPosition position) {
-        return board[position.getRow()-1][position.getColumn()-1];
+        int index = pieceIndexAt(square(position));
+        return index < 0 ? null : ChessPiece.fromIndex(index);
     }
 
-    public ChessBoard cloneBoard(){
-        ChessBoard newBoard = new ChessBoard();
+    /**
+     * @return the Zobrist key of the piece placement, kept up to date as pieces
+     * are added, moved and captured. It does not include the side to move; see
+     * {@link ChessGame#getZobristKey()}.
+     */
+    public long getZobristKey() {
+        return zobristKey;
+    }
 
-        for (int i = 1; i <= 8; i++) {
-            for (int j = 1; j <= 8; j++) {
-                ChessPosition position = new ChessPosition(i, j);
-                ChessPiece piece = getPiece(position);
+    /**
+     * @return bitboard of every square holding a piece of the given color and type
+     */
+    public long getBitboard(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return pieces[pieceIndex(color, type)];
+    }
 
-                if(piece != null){
-                    newBoard.addPiece(position, piece);
-                }
+    /**
+     * @return bitboard of every square holding a piece of the given color
+     */
+    public long getOccupancy(ChessGame.TeamColor color) {
+        return colors[color.ordinal()];
+    }
+
+    /**
+     * @return bitboard of every occupied square
+     */
+    public long getOccupancy() {
+        return colors[0] | colors[1];
+    }
+
+    int pieceIndexAt(int square) {
+        long bit = 1L << square;
+        int color;
+        if((colors[0] & bit) != 0) {
+            color = 0;
+        } else if ((colors[1] & bit) != 0) {
+            color = 1;
+        } else {
+            return -1;
+        }
+        int base = color * PIECE_TYPES;
+        for (int i = base; i < base + PIECE_TYPES; i++) {
+            if((pieces[i] & bit) != 0) {
+                return i;
             }
         }
-        return newBoard;
+        return -1;
     }
 
-    public ChessPosition findKing(ChessGame.TeamColor teamColor) {
-        ChessPosition kingLocation = new ChessPosition(0, 0);
-        for (int i = 1; i <= 8; i++) {
-            for (int j = 1; j <= 8; j++) {
-                if(getPiece(new ChessPosition(i, j)) != null){
-                    ChessPiece piece = getPiece(new ChessPosition(i, j));
-                    if(piece != null && piece.getTeamColor() == teamColor && piece.getPieceType() == ChessPiece.PieceType.KING){
-                       kingLocation = new ChessPosition(i, j);
-                    }
-                }
-            }
+    private void setSquare(int square, int index) {
+        long bit = 1L << square;
+        pieces[index] |= bit;
+        colors[index / PIECE_TYPES] |= bit;
+        zobristKey ^= Zobrist.pieceKey(index, square);
+    }
+
+    private void removePiece(int square, int index) {
+        long bit = 1L << square;
+        pieces[index] &= ~bit;
+        colors[index / PIECE_TYPES] &= ~bit;
+        zobristKey ^= Zobrist.pieceKey(index, square);
+    }
+
+    private void clearSquare(int square) {
+        int index = pieceIndexAt(square);
+        if(index >= 0) {
+            removePiece(square, index);
         }
-        return kingLocation;
     }
 
     /**
-     * Sets the board to the default starting board
-     * (How the game of chess normally starts)
+     * Determines whether any piece of the given color attacks a square. Rather
+     * than generating the attacker's moves, this looks outward from the square
+     * with each piece's attack pattern and stops at the first match.
+     *
+     * @param square   the 0-63 square to test
+     * @param attacker the color of the attacking side
+     * @return True if the square is attacked
      */
-    public void resetBoard() {
-        board = new ChessPiece[8][8];
+    public boolean isSquareAttacked(int square, ChessGame.TeamColor attacker) {
+        return isSquareAttacked(square, attacker, getOccupancy());
+    }
+
+    /**
+     * Same as {@link #isSquareAttacked(int, ChessGame.TeamColor)}, but sliders
+     * are blocked only by the given occupancy. Move generation uses this to ask
+     * whether a king would still be attacked once it steps off its square.
+     */
+    boolean isSquareAttacked(int square, ChessGame.TeamColor attacker, long occupied) {
+        int base = attacker.ordinal() * PIECE_TYPES;
+        ChessGame.TeamColor defender = attacker.opponent();
+
+        if((AttackTables.knightAttacks(square) & pieces[base + ChessPiece.PieceType.KNIGHT.ordinal()]) != 0) {
+            return true;
+        }
+        // a pawn attacks this square if it stands where a defending pawn here would attack
+        if((AttackTables.pawnAttacks(defender, square) & pieces[base + ChessPiece.PieceType.PAWN.ordinal()]) != 0) {
+            return true;
+        }
+        if((AttackTables.kingAttacks(square) & pieces[base + ChessPiece.PieceType.KING.ordinal()]) != 0) {
+            return true;
+        }
 
-        board[1][0] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
-        board[1][1] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
-        board[1][2] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
-        board[1][3] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
-        board[1][4] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
-        board[1][5] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
-        board[1][6] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
-        board[1][7] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
+        long queens = pieces[base + ChessPiece.PieceType.QUEEN.ordinal()];
+        long diagonal = pieces[base + ChessPiece.PieceType.BISHOP.ordinal()] | queens;
+        if(diagonal != 0 && (AttackTables.bishopAttacks(square, occupied) & diagonal) != 0) {
+            return true;
+        }
+        long straight = pieces[base + ChessPiece.PieceType.ROOK.ordinal()] | queens;
+        return straight != 0 && (AttackTables.rookAttacks(square, occupied) & straight) != 0;
+    }
 
-        board[0][0] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
-        board[0][7] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
+    /**
+     * @return bitboard of every piece of the attacking color that attacks square
+     */
+    public long attackersOf(int square, ChessGame.TeamColor attacker) {
+        return attackersOf(square, attacker, getOccupancy());
+    }
 
-        board[0][1] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
-        board[0][6] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
+    /**
+     * @return bitboard of every piece of either color that attacks square
+     */
+    public long attackersOf(int square) {
+        long occupied = getOccupancy();
+        return attackersOf(square, ChessGame.TeamColor.WHITE, occupied)
+                | attackersOf(square, ChessGame.TeamColor.BLACK, occupied);
+    }
 
-        board[0][2] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP);
-        board[0][5] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP);
+    /**
+     * @return the positions of every piece of the attacking color that attacks position
+     */
+    public List<ChessPosition> getAttackers(ChessPosition position, ChessGame.TeamColor attacker) {
+        List<ChessPosition> attackers = new ArrayList<>();
+        for (long bits = attackersOf(square(position), attacker); bits != 0; bits &= bits - 1) {
+            attackers.add(ChessPosition.fromSquare(Long.numberOfTrailingZeros(bits)));
+        }
+        return attackers;
+    }
+
+    /**
+     * Attackers as they would be with only the given squares occupied, so that
+     * a slider shows up once the pieces in front of it are taken out of the
+     * occupancy. Pieces off the occupancy are not filtered out; mask the result
+     * with it to drop them.
+     *
+     * @return bitboard of every piece of the attacking color that attacks square,
+     * with sliders blocked by the given occupancy
+     */
+    public long attackersOf(int square, ChessGame.TeamColor attacker, long occupied) {
+        int base = attacker.ordinal() * PIECE_TYPES;
+        long queens = pieces[base + ChessPiece.PieceType.QUEEN.ordinal()];
+        return (AttackTables.knightAttacks(square) & pieces[base + ChessPiece.PieceType.KNIGHT.ordinal()])
+                | (AttackTables.pawnAttacks(attacker.opponent(), square) & pieces[base + ChessPiece.PieceType.PAWN.ordinal()])
+                | (AttackTables.kingAttacks(square) & pieces[base + ChessPiece.PieceType.KING.ordinal()])
+                | (AttackTables.bishopAttacks(square, occupied) & (pieces[base + ChessPiece.PieceType.BISHOP.ordinal()] | queens))
+                | (AttackTables.rookAttacks(square, occupied) & (pieces[base + ChessPiece.PieceType.ROOK.ordinal()] | queens));
+    }
+
+    /**
+     * @return True if the given team's king is attacked. A board without that
+     * king is never in check.
+     */
+    public boolean isInCheck(ChessGame.TeamColor teamColor) {
+        int king = getKingSquare(teamColor);
+        return king >= 0 && isSquareAttacked(king, teamColor.opponent());
+    }
+
+    public ChessBoard cloneBoard(){
+        ChessBoard newBoard = new ChessBoard();
+        System.arraycopy(pieces, 0, newBoard.pieces, 0, pieces.length);
+        System.arraycopy(colors, 0, newBoard.colors, 0, colors.length);
+        newBoard.zobristKey = zobristKey;
+        return newBoard;
+    }
+
+    /**
+     * @return the position of the given team's king, or position (0, 0) if it has none
+     */
+    public ChessPosition findKing(ChessGame.TeamColor teamColor) {
+        int square = getKingSquare(teamColor);
+        return square < 0 ? NO_KING : ChessPosition.fromSquare(square);
+    }
 
-        board[0][3] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN);
-        board[0][4] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING);
+    /**
+     * Gets the square of the given team's king in constant time. The square is
+     * read from the king bitboard, which addPiece, movePiece, makeMove and
+     * unmakeMove already maintain, so it can never disagree with the board:
+     * cloned boards and boards read back from JSON carry it with them.
+     *
+     * @return the 0-63 square of the king, or -1 if the team has no king
+     */
+    public int getKingSquare(ChessGame.TeamColor teamColor) {
+        return 63 - Long.numberOfLeadingZeros(pieces[pieceIndex(teamColor, ChessPiece.PieceType.KING)]);
+    }
 
+    /**
+     * Sets the board to the default starting board
+     * (How the game of chess normally starts)
+     */
+    public void resetBoard() {
+        Arrays.fill(pieces, 0L);
 
-        board[6][0] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
-        board[6][1] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
-        board[6][2] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
-        board[6][3] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
-        board[6][4] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
-        board[6][5] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
-        board[6][6] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
-        board[6][7] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
+        pieces[pieceIndex(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN)] = 0x000000000000FF00L;
+        pieces[pieceIndex(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN)] = 0x00FF000000000000L;
+        setBackRank(ChessGame.TeamColor.WHITE, 0);
+        setBackRank(ChessGame.TeamColor.BLACK, 56);
 
-        board[7][0] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
-        board[7][7] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
+        colors[0] = 0x000000000000FFFFL;
+        colors[1] = 0xFFFF000000000000L;
 
-        board[7][1] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
-        board[7][6] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
+        zobristKey = 0;
+        for (int index = 0; index < pieces.length; index++) {
+            for (long bits = pieces[index]; bits != 0; bits &= bits - 1) {
+                zobristKey ^= Zobrist.pieceKey(index, Long.numberOfTrailingZeros(bits));
+            }
+        }
+    }
 
-        board[7][2] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
-        board[7][5] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
+    private void setBackRank(ChessGame.TeamColor color, int first) {
+        pieces[pieceIndex(color, ChessPiece.PieceType.ROOK)] = (1L << first) | (1L << (first + 7));
+        pieces[pieceIndex(color, ChessPiece.PieceType.KNIGHT)] = (1L << (first + 1)) | (1L << (first + 6));
+        pieces[pieceIndex(color, ChessPiece.PieceType.BISHOP)] = (1L << (first + 2)) | (1L << (first + 5));
+        pieces[pieceIndex(color, ChessPiece.PieceType.QUEEN)] = 1L << (first + 3);
+        pieces[pieceIndex(color, ChessPiece.PieceType.KING)] = 1L << (first + 4);
+    }
 
-        board[7][3] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN);
-        board[7][4] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
+    /**
+     * @param fen a FEN piece placement field, or a full FEN string of which only
+     *            the placement is read
+     * @return a new board holding those pieces
+     */
+    public static ChessBoard fromFen(String fen) {
+        return Fen.parsePlacement(fen.trim().split("\\s+")[0]);
+    }
 
+    /**
+     * @return the FEN piece placement field for this board
+     */
+    public String toFen() {
+        return Fen.placement(this);
     }
 
     @Override
@@ -174,7 +444,7 @@ public class ChessBoard {
         for(int row = startRow; row != endRow; row+=stepRow) {
             boardBuilder.append(row);
             for (int col = startCol; col != endCol; col+=stepCol) {
-                ChessPiece piece = getPiece(new ChessPosition(row, col));
+                ChessPiece piece = getPiece(ChessPosition.of(row, col));
                 boardBuilder.append("|");
 
                 if(piece == null){
@@ -216,37 +486,75 @@ public class ChessBoard {
         }
 
         ChessBoard other = (ChessBoard) o;
+        return Arrays.equals(pieces, other.pieces);
+    }
 
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition pos = new ChessPosition(row, col);
-                ChessPiece thisPiece = this.getPiece(pos);
-                ChessPiece otherPiece = other.getPiece(pos);
+    @Override
+    public int hashCode() {
+        return Long.hashCode(zobristKey);
+    }
 
-                if (thisPiece == null && otherPiece == null){
-                    continue;
+    /**
+     * Writes a board as its FEN piece placement string. The bitboards, colors
+     * and key are rebuilt through addPiece on the way back in. Boards saved by
+     * older versions, as an 8x8 array of pieces under "board", can still be
+     * read.
+     */
+    static class Adapter extends TypeAdapter<ChessBoard> {
+        private static final ChessPiece.Adapter PIECES = new ChessPiece.Adapter();
+
+        @Override
+        public void write(JsonWriter out, ChessBoard board) throws IOException {
+            if (board == null) {
+                out.nullValue();
+                return;
+            }
+            out.value(board.toFen());
+        }
+
+        @Override
+        public ChessBoard read(JsonReader in) throws IOException {
+            switch (in.peek()) {
+                case NULL -> {
+                    in.nextNull();
+                    return null;
                 }
-                if (thisPiece == null || otherPiece == null){
-                    return false;
+                case STRING -> {
+                    try {
+                        return Fen.parsePlacement(in.nextString());
+                    } catch (IllegalArgumentException e) {
+                        throw new IOException(e.getMessage(), e);
+                    }
                 }
-                if (!thisPiece.equals(otherPiece)) {
-                    return false;
+                default -> {
+                    return readLegacy(in);
                 }
             }
         }
-        return true;
-    }
 
-    @Override
-    public int hashCode() {
-        int result = 17;
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition pos = new ChessPosition(row, col);
-                ChessPiece piece = this.getPiece(pos);
-                result = 31 * result + (piece == null ? 0 : piece.hashCode());
+        private static ChessBoard readLegacy(JsonReader in) throws IOException {
+            ChessBoard board = new ChessBoard();
+            in.beginObject();
+            while (in.hasNext()) {
+                if (!in.nextName().equals("board")) {
+                    in.skipValue();
+                    continue;
+                }
+                in.beginArray();
+                for (int row = 1; in.hasNext(); row++) {
+                    in.beginArray();
+                    for (int col = 1; in.hasNext(); col++) {
+                        ChessPiece piece = PIECES.read(in);
+                        if (piece != null) {
+                            board.addPiece(ChessPosition.of(row, col), piece);
+                        }
+                    }
+                    in.endArray();
+                }
+                in.endArray();
             }
+            in.endObject();
+            return board;
         }
-        return result;
     }
 }
@@ -1,7 +1,17 @@
 package chess;
 
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -10,18 +20,72 @@ import java.util.Objects;
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
+@JsonAdapter(ChessGame.Adapter.class)
 public class ChessGame {
     private ChessBoard board;
     private TeamColor turn;
     private ArrayList<ChessMove> gameLog;
     private boolean gameOver = false;
     private String winner;
+    private GameStatus status;
+    // position key the status was computed for, so edits made through getBoard() are noticed
+    private long statusKey;
+    // kept so FEN round trips; this engine does not play castling or en passant
+    private int castlingRights;
+    private int enPassantSquare;
+    private int halfmoveClock;
+    private int fullmoveNumber;
+    // keys of the positions since the last capture or pawn move, current position last
+    private long[] positionKeys = new long[16];
+    private int positionCount;
+
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+    public static final int ALL_CASTLING = 15;
+
+    // castling rights that survive a move touching each square, indexed by square
+    private static final int[] CASTLING_KEPT = new int[64];
+
+    static {
+        Arrays.fill(CASTLING_KEPT, ALL_CASTLING);
+        CASTLING_KEPT[0] = ALL_CASTLING & ~WHITE_QUEENSIDE;
+        CASTLING_KEPT[4] = ALL_CASTLING & ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        CASTLING_KEPT[7] = ALL_CASTLING & ~WHITE_KINGSIDE;
+        CASTLING_KEPT[56] = ALL_CASTLING & ~BLACK_QUEENSIDE;
+        CASTLING_KEPT[60] = ALL_CASTLING & ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        CASTLING_KEPT[63] = ALL_CASTLING & ~BLACK_KINGSIDE;
+    }
 
     public ChessGame() {
         this.board = new ChessBoard();
         this.board.resetBoard();
         this.turn = TeamColor.WHITE;
         this.gameLog = new ArrayList<>();
+        this.status = GameStatus.NORMAL;
+        this.statusKey = getZobristKey();
+        this.castlingRights = ALL_CASTLING;
+        this.enPassantSquare = -1;
+        this.fullmoveNumber = 1;
+        this.positionKeys[positionCount++] = statusKey;
+    }
+
+    /**
+     * Creates a game from a FEN string. Castling rights, the en passant square
+     * and both move counters are kept and written back out by {@link #toFen()}.
+     *
+     * @throws IllegalArgumentException if the FEN string is malformed
+     */
+    public static ChessGame fromFen(String fen) {
+        return Fen.parse(fen);
+    }
+
+    /**
+     * @return this position as a FEN string
+     */
+    public String toFen() {
+        return Fen.format(this);
     }
 
     public boolean isGameOver() {
@@ -37,6 +101,72 @@ public class ChessGame {
         this.winner = winner;
     }
 
+    /**
+     * Gets the status of the team whose turn it is. The status is worked out
+     * once when a move is made and kept, so reading it is free; if the board
+     * or turn has changed since, it is recomputed on the next read.
+     *
+     * @return whether the team to move is in check, checkmate or stalemate
+     */
+    public GameStatus getGameStatus() {
+        long key = getZobristKey();
+        if (status == null || statusKey != key) {
+            status = currentStatus();
+            statusKey = key;
+        }
+        return status;
+    }
+
+    /**
+     * @return the keys of the positions since the last capture or pawn move,
+     * oldest first and ending with the current position
+     */
+    public long[] getPositionHistory() {
+        syncPositionHistory();
+        return Arrays.copyOf(positionKeys, positionCount);
+    }
+
+    /**
+     * @return true if the current position has now appeared three times with
+     * the same side to move since the last capture or pawn move
+     */
+    public boolean isThreefoldRepetition() {
+        syncPositionHistory();
+        long key = positionKeys[positionCount - 1];
+        int seen = 1;
+        // only positions with the same side to move can match, so step back two at a time
+        for (int i = positionCount - 3; i >= 0; i -= 2) {
+            if (positionKeys[i] == key && ++seen == 3) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true if fifty moves by each side have passed without a capture or pawn move
+     */
+    public boolean isFiftyMoveRule() {
+        return halfmoveClock >= 100;
+    }
+
+    private void pushPositionKey(long key) {
+        if (positionCount == positionKeys.length) {
+            positionKeys = Arrays.copyOf(positionKeys, positionCount * 2);
+        }
+        positionKeys[positionCount++] = key;
+    }
+
+    // the board or turn may have been replaced through setBoard or setTeamTurn,
+    // in which case the history no longer leads to this position and starts over
+    private void syncPositionHistory() {
+        long key = getZobristKey();
+        if (positionCount == 0 || positionKeys[positionCount - 1] != key) {
+            positionCount = 0;
+            pushPositionKey(key);
+        }
+    }
+
     /**
      * @return Which team's turn it is
      */
@@ -53,12 +183,106 @@ public class ChessGame {
         turn = team;
     }
 
+    /**
+     * @return the castling rights as a bitmask of {@link #WHITE_KINGSIDE} and friends
+     */
+    public int getCastlingRights() {
+        return castlingRights;
+    }
+
+    /**
+     * @return the square a pawn just skipped over with a double push, or null
+     */
+    public ChessPosition getEnPassantSquare() {
+        return enPassantSquare < 0 ? null : ChessPosition.fromSquare(enPassantSquare);
+    }
+
+    /**
+     * @return number of moves since the last capture or pawn move
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * @return the move number, starting at 1 and going up after black moves
+     */
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    /**
+     * @return every move played in this game, oldest first
+     */
+    public List<ChessMove> getMoveHistory() {
+        return Collections.unmodifiableList(gameLog);
+    }
+
+    /**
+     * Puts back state that was saved with the game, without replaying the
+     * moves or recomputing the status.
+     */
+    void restore(List<ChessMove> moves, GameStatus savedStatus, long[] history) {
+        gameLog = new ArrayList<>(moves);
+        positionCount = 0;
+        if (history != null) {
+            for (long key : history) {
+                pushPositionKey(key);
+            }
+        }
+        syncPositionHistory();
+        status = savedStatus;
+        statusKey = getZobristKey();
+    }
+
+    void setFenState(int castlingRights, int enPassantSquare, int halfmoveClock, int fullmoveNumber) {
+        this.castlingRights = castlingRights;
+        this.enPassantSquare = enPassantSquare;
+        this.halfmoveClock = halfmoveClock;
+        this.fullmoveNumber = fullmoveNumber;
+    }
+
+    /**
+     * @return the Zobrist key of the current position: the board's key with the
+     * side-to-move key mixed in when it is black's turn
+     */
+    public long getZobristKey() {
+        long key = board.getZobristKey();
+        return turn == TeamColor.BLACK ? key ^ Zobrist.sideToMoveKey() : key;
+    }
+
     /**
      * Enum identifying the 2 possible teams in a chess game
      */
     public enum TeamColor {
         WHITE,
-        BLACK
+        BLACK;
+
+        /**
+         * @return the other team
+         */
+        public TeamColor opponent() {
+            return this == WHITE ? BLACK : WHITE;
+        }
+    }
+
+    /**
+     * The state of the team whose turn it is
+     */
+    public enum GameStatus {
+        NORMAL,
+        CHECK,
+        CHECKMATE,
+        STALEMATE,
+        REPETITION,
+        FIFTY_MOVE;
+
+        /**
+         * @return true if no more moves can be made in this state
+         */
+        public boolean isGameOver() {
+            return this != NORMAL && this != CHECK;
+        }
     }
 
     /**
@@ -75,25 +299,31 @@ public class ChessGame {
             return null;
         }
 
-        Collection<ChessMove> moves = piece.pieceMoves(board, startPosition);
-
-        Collection<ChessMove> legalMoves = new ArrayList<>();
-
-        for (ChessMove move : moves) {
-            ChessBoard copy = board.cloneBoard();
-
-            copy.movePiece(move);
-
-            // check for check
-            if (!isCopyInCheck(piece.getTeamColor(), copy)){
-                legalMoves.add(move);
-            }
-
-
+        MoveList moves = new MoveList(32);
+        MoveGenerator.generateLegal(board, piece.getTeamColor(), 1L << ChessBoard.square(startPosition), moves);
+        return moves.toChessMoves();
+    }
 
-        }
+    /**
+     * Gets every legal move for the team whose turn it is, generated in a
+     * single pass over the board
+     *
+     * @return Set of valid moves for the team to move
+     */
+    public Collection<ChessMove> validMoves() {
+        return validMoves(turn);
+    }
 
-        return legalMoves;
+    /**
+     * Gets every legal move for the given team
+     *
+     * @param teamColor which team to get moves for
+     * @return Set of valid moves for that team
+     */
+    public Collection<ChessMove> validMoves(TeamColor teamColor) {
+        MoveList moves = new MoveList();
+        MoveGenerator.generateLegal(board, teamColor, moves);
+        return moves.toChessMoves();
     }
 
     /**
@@ -107,6 +337,9 @@ public class ChessGame {
         if(gameOver){
             throw new InvalidMoveException();
         }
+        if (!move.getStartPosition().isOnBoard() || !move.getEndPosition().isOnBoard()) {
+            throw new InvalidMoveException("Move goes off the board");
+        }
 
         ChessPiece piece = board.getPiece(move.getStartPosition());
         if (piece == null) {
@@ -116,35 +349,69 @@ public class ChessGame {
             throw new InvalidMoveException("Not this teams turn");
         }
 
-        if(isInCheck(getTeamTurn())){
-            if(!move.getStartPosition().equals(board.findKing(getTeamTurn()))) {
-                throw new InvalidMoveException("King is already in check");
-            }
+        GameStatus current = getGameStatus();
+        if(current == GameStatus.CHECKMATE) {
+            throw new InvalidMoveException("King is already in checkmate");
         }
-
-        Collection<ChessMove> moves = validMoves(move.getStartPosition());
-
-        if (!moves.contains(move)) {
-            throw new InvalidMoveException("Move not valid");
+        if(current == GameStatus.STALEMATE){
+            throw new InvalidMoveException("Game is stalemate");
         }
-
-        if(isInCheckmate(getTeamTurn())) {
-            throw new InvalidMoveException("King is already in checkmate");
+        if(current.isGameOver()){
+            throw new InvalidMoveException("Game is drawn");
         }
 
-        if(isInStalemate(getTeamTurn())){
-            throw new InvalidMoveException("Game is stalemate");
+        if (!MoveGenerator.isLegal(board, turn, PackedMove.fromChessMove(move))) {
+            throw new InvalidMoveException("Move not valid");
         }
 
+        int from = ChessBoard.square(move.getStartPosition());
+        int to = ChessBoard.square(move.getEndPosition());
+        boolean pawn = piece.getPieceType() == ChessPiece.PieceType.PAWN;
+        boolean capture = board.getPiece(move.getEndPosition()) != null;
+
+        syncPositionHistory();
         board.movePiece(move);
         gameLog.add(move);
 
+        halfmoveClock = pawn || capture ? 0 : halfmoveClock + 1;
+        if (turn == TeamColor.BLACK) {
+            fullmoveNumber++;
+        }
+        castlingRights &= CASTLING_KEPT[from] & CASTLING_KEPT[to];
+        enPassantSquare = pawn && Math.abs(to - from) == 16 ? (from + to) / 2 : -1;
 
-        turn = (turn == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
-
-
+        turn = turn.opponent();
+        if (halfmoveClock == 0) {
+            // nothing before an irreversible move can repeat
+            positionCount = 0;
+        }
+        pushPositionKey(getZobristKey());
+        status = currentStatus();
+        statusKey = getZobristKey();
+    }
 
+    // checkmate and stalemate end the game even on the move that would also draw it
+    private GameStatus currentStatus() {
+        GameStatus moveStatus = computeStatus(turn);
+        if (moveStatus.isGameOver()) {
+            return moveStatus;
+        }
+        if (isThreefoldRepetition()) {
+            return GameStatus.REPETITION;
+        }
+        if (isFiftyMoveRule()) {
+            return GameStatus.FIFTY_MOVE;
+        }
+        return moveStatus;
+    }
 
+    private GameStatus computeStatus(TeamColor teamColor) {
+        boolean inCheck = board.isInCheck(teamColor);
+        boolean canMove = hasValidMove(teamColor);
+        if (inCheck) {
+            return canMove ? GameStatus.CHECK : GameStatus.CHECKMATE;
+        }
+        return canMove ? GameStatus.NORMAL : GameStatus.STALEMATE;
     }
 
     /**
@@ -154,44 +421,11 @@ public class ChessGame {
      * @return True if the specified team is in check
      */
     public boolean isInCheck(TeamColor teamColor) {
-        //find the teamColor king
-        ChessPosition kingLocation = board.findKing(teamColor);
-
-        for (int i = 1; i <= 8; i++) {
-            for (int j = 1; j <= 8; j++) {
-                ChessPiece kingHunter = board.getPiece(new ChessPosition(i, j));
-                if (kingHunter == null || kingHunter.getTeamColor() == teamColor) {
-                    continue;
-                }for (ChessMove move : kingHunter.pieceMoves(board, new ChessPosition(i, j))) {
-                    if (move.getEndPosition().equals(kingLocation)) {
-                        return true;
-                    }
-                }
-
-            }
-        }
-        return false;
+        return board.isInCheck(teamColor);
     }
 
     public boolean isCopyInCheck(TeamColor teamColor, ChessBoard copy) {
-        //find the teamColor king
-        ChessPosition kingLocation = copy.findKing(teamColor);
-
-        for (int i = 1; i <= 8; i++) {
-            for (int j = 1; j <= 8; j++) {
-                ChessPiece enemy = copy.getPiece(new ChessPosition(i, j));
-                if (enemy == null || enemy.getTeamColor() == teamColor) {
-                    continue;
-                }
-               for  (ChessMove move : enemy.pieceMoves(copy, new ChessPosition(i, j))) {
-                   if (move.getEndPosition().equals(kingLocation)) {
-                       return true;
-                   }
-               }
-            }
-        }
-
-        return false;
+        return copy.isInCheck(teamColor);
     }
 
     /**
@@ -201,22 +435,10 @@ public class ChessGame {
      * @return True if the specified team is in checkmate
      */
     public boolean isInCheckmate(TeamColor teamColor) {
-        if(!isInCheck(teamColor)){
-            return false;
+        if(teamColor == turn){
+            return getGameStatus() == GameStatus.CHECKMATE;
         }
-
-        for (int i = 1; i <= 8; i++) {
-            for (int j = 1; j <= 8; j++) {
-                ChessPiece piece = board.getPiece(new ChessPosition(i, j));
-                if (piece != null && piece.getTeamColor() == teamColor) {
-                    Collection<ChessMove> moves = validMoves(new ChessPosition(i, j));
-                    if(!moves.isEmpty()) {
-                        return false;
-                    }
-                }
-            }
-        }
-        return true;
+        return computeStatus(teamColor) == GameStatus.CHECKMATE;
     }
 
     /**
@@ -227,22 +449,16 @@ public class ChessGame {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
-        if(isInCheck(teamColor)){
-            return false;
-        }
-        for (int i = 1; i <= 8; i++) {
-            for (int j = 1; j <= 8; j++) {
-                ChessPiece piece = board.getPiece(new ChessPosition(i, j));
-                if (piece != null && piece.getTeamColor() == teamColor) {
-                    Collection<ChessMove> moves = validMoves(new ChessPosition(i, j));
-                    if(moves != null && !moves.isEmpty()) {
-                        return false;
-                    }
-                }
-            }
+        if(teamColor == turn){
+            return getGameStatus() == GameStatus.STALEMATE;
         }
+        return computeStatus(teamColor) == GameStatus.STALEMATE;
+    }
 
-        return true;
+    private boolean hasValidMove(TeamColor teamColor) {
+        MoveList moves = new MoveList();
+        MoveGenerator.generateLegal(board, teamColor, moves);
+        return !moves.isEmpty();
     }
 
     /**
@@ -282,6 +498,117 @@ public class ChessGame {
 
     @Override
     public int hashCode() {
-        return Objects.hash(board, turn);
+        return Long.hashCode(getZobristKey());
+    }
+
+    /**
+     * Writes a game as its FEN string, cached status, game-over flag, winner,
+     * the moves played in coordinate notation and the position keys since the
+     * last irreversible move, e.g.
+     * {@code {"fen":"... b KQkq e3 0 1","status":"NORMAL","gameOver":false,"moves":["e2e4"],"history":[...]}}.
+     * Games written field by field by older versions are still read.
+     */
+    static class Adapter extends TypeAdapter<ChessGame> {
+        private static final ChessBoard.Adapter BOARDS = new ChessBoard.Adapter();
+        private static final ChessMove.Adapter MOVES = new ChessMove.Adapter();
+
+        @Override
+        public void write(JsonWriter out, ChessGame game) throws IOException {
+            if (game == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("fen").value(game.toFen());
+            out.name("status").value(game.getGameStatus().name());
+            out.name("gameOver").value(game.gameOver);
+            if (game.winner != null) {
+                out.name("winner").value(game.winner);
+            }
+            out.name("moves").beginArray();
+            for (ChessMove move : game.gameLog) {
+                out.value(PackedMove.toString(PackedMove.fromChessMove(move)));
+            }
+            out.endArray();
+            out.name("history").beginArray();
+            for (long key : game.getPositionHistory()) {
+                out.value(key);
+            }
+            out.endArray();
+            out.endObject();
+        }
+
+        @Override
+        public ChessGame read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            ChessGame game = new ChessGame();
+            String fen = null;
+            GameStatus savedStatus = null;
+            List<ChessMove> moves = new ArrayList<>();
+            long[] history = null;
+            try {
+                in.beginObject();
+                while (in.hasNext()) {
+                    String name = in.nextName();
+                    if (in.peek() == JsonToken.NULL) {
+                        in.nextNull();
+                        continue;
+                    }
+                    switch (name) {
+                        case "fen" -> fen = in.nextString();
+                        case "status" -> savedStatus = GameStatus.valueOf(in.nextString());
+                        case "gameOver" -> game.gameOver = in.nextBoolean();
+                        case "winner" -> game.winner = in.nextString();
+                        case "history" -> {
+                            List<Long> keys = new ArrayList<>();
+                            in.beginArray();
+                            while (in.hasNext()) {
+                                keys.add(in.nextLong());
+                            }
+                            in.endArray();
+                            history = keys.stream().mapToLong(Long::longValue).toArray();
+                        }
+                        case "moves" -> {
+                            in.beginArray();
+                            while (in.hasNext()) {
+                                moves.add(PackedMove.toChessMove(PackedMove.parse(in.nextString())));
+                            }
+                            in.endArray();
+                        }
+                        // fields of the older field-by-field format
+                        case "board" -> game.board = BOARDS.read(in);
+                        case "turn" -> game.turn = TeamColor.valueOf(in.nextString());
+                        case "gameLog" -> {
+                            in.beginArray();
+                            while (in.hasNext()) {
+                                moves.add(MOVES.read(in));
+                            }
+                            in.endArray();
+                        }
+                        case "castlingRights" -> game.castlingRights = in.nextInt();
+                        case "enPassantSquare" -> game.enPassantSquare = in.nextInt();
+                        case "halfmoveClock" -> game.halfmoveClock = in.nextInt();
+                        case "fullmoveNumber" -> game.fullmoveNumber = in.nextInt();
+                        default -> in.skipValue();
+                    }
+                }
+                in.endObject();
+
+                if (fen != null) {
+                    ChessGame parsed = Fen.parse(fen);
+                    game.board = parsed.board;
+                    game.turn = parsed.turn;
+                    game.setFenState(parsed.castlingRights, parsed.enPassantSquare,
+                            parsed.halfmoveClock, parsed.fullmoveNumber);
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+            game.restore(moves, savedStatus, history);
+            return game;
+        }
     }
 }
@@ -1,5 +1,12 @@
 package chess;
 
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
 import java.util.Objects;
 
 /**
@@ -8,6 +15,7 @@ import java.util.Objects;
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
+@JsonAdapter(ChessMove.Adapter.class)
 public class ChessMove {
 
     private final ChessPosition startPosition;
@@ -66,4 +74,57 @@ public class ChessMove {
     public int hashCode() {
         return Objects.hash(startPosition, endPosition, promotionPiece);
     }
+
+    /**
+     * Streams a move in the same shape reflection produced, so clients that
+     * build the JSON themselves keep working.
+     */
+    static class Adapter extends TypeAdapter<ChessMove> {
+        private static final ChessPosition.Adapter POSITIONS = new ChessPosition.Adapter();
+
+        @Override
+        public void write(JsonWriter out, ChessMove move) throws IOException {
+            if (move == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("startPosition");
+            POSITIONS.write(out, move.startPosition);
+            out.name("endPosition");
+            POSITIONS.write(out, move.endPosition);
+            if (move.promotionPiece != null) {
+                out.name("promotionPiece").value(move.promotionPiece.name());
+            }
+            out.endObject();
+        }
+
+        @Override
+        public ChessMove read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            ChessPosition start = null;
+            ChessPosition end = null;
+            ChessPiece.PieceType promotion = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "startPosition" -> start = POSITIONS.read(in);
+                    case "endPosition" -> end = POSITIONS.read(in);
+                    case "promotionPiece" -> {
+                        if (in.peek() == JsonToken.NULL) {
+                            in.nextNull();
+                        } else {
+                            promotion = ChessPiece.PieceType.valueOf(in.nextString());
+                        }
+                    }
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return new ChessMove(start, end, promotion);
+        }
+    }
 }
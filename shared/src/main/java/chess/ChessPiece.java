@@ -1,7 +1,13 @@
 package chess;
 
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
 import java.util.Collection;
-import java.util.ArrayList;
 import java.util.Objects;
 
 /**
@@ -10,8 +16,20 @@ import java.util.Objects;
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
+@JsonAdapter(ChessPiece.Adapter.class)
 public class ChessPiece {
 
+    private static final int TYPE_COUNT = PieceType.values().length;
+    private static final ChessPiece[] PIECES = new ChessPiece[2 * TYPE_COUNT];
+
+    static {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (PieceType type : PieceType.values()) {
+                PIECES[color.ordinal() * TYPE_COUNT + type.ordinal()] = new ChessPiece(color, type);
+            }
+        }
+    }
+
     private final ChessGame.TeamColor pieceColor;
     private final PieceType type;
 
@@ -20,6 +38,21 @@ public class ChessPiece {
         this.type = type;
     }
 
+    /**
+     * Gets the shared instance for a color and type. Pieces are immutable, so
+     * the board and game hand these out instead of allocating new ones.
+     */
+    public static ChessPiece of(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
+        return PIECES[pieceColor.ordinal() * TYPE_COUNT + type.ordinal()];
+    }
+
+    /**
+     * @return the shared instance for a ChessBoard piece index (color * 6 + type)
+     */
+    static ChessPiece fromIndex(int index) {
+        return PIECES[index];
+    }
+
     /**
      * The various different chess piece options
      */
@@ -46,62 +79,6 @@ public class ChessPiece {
         return type;
     }
 
-    public void pPromotion(ChessPosition origin, ChessPosition endPosition, ArrayList<ChessMove> moves) {
-        moves.add(new ChessMove(origin, endPosition, PieceType.QUEEN));
-        moves.add(new ChessMove(origin, endPosition, PieceType.BISHOP));
-        moves.add(new ChessMove(origin, endPosition, PieceType.ROOK));
-        moves.add(new ChessMove(origin, endPosition, PieceType.KNIGHT));
-    }
-
-    public void pCapture(ChessBoard board, ChessPosition origin, int rowDir, ArrayList<ChessMove> moves) {
-        int row = origin.getRow() + rowDir;
-        int col = origin.getColumn();
-
-        for(int colOffset : new int[]{-1, 1}){
-            int newCol = col + colOffset;
-
-            if(newCol < 1 || newCol > 8 || row < 1 || row > 8){
-                continue;
-            }
-
-            ChessPosition targetPosition = new ChessPosition(row, newCol);
-            ChessPiece targetPiece = board.getPiece(targetPosition);
-            ChessPiece currentPiece = board.getPiece(origin);
-
-            if (targetPiece != null && targetPiece.getTeamColor() != currentPiece.getTeamColor()){
-                if (row == 8 || row == 1){
-                    pPromotion(origin, targetPosition, moves);
-                } else {
-                    moves.add(new ChessMove(origin, targetPosition, null));
-                }
-            }
-        }
-    }
-
-    public void path(ChessBoard board, ChessPosition origin, ChessPosition myPosition, int rowDir, int colDir, ArrayList<ChessMove> moves) {
-        int row = myPosition.getRow() +  rowDir;
-        int col = myPosition.getColumn() +  colDir;
-
-        ChessPosition newPosition = new ChessPosition(row, col);
-
-        if (row > 8 || row < 1 || col > 8 || col < 1) {
-            return;
-        }
-
-        if(board.getPiece(newPosition) == null) {
-            if (type == PieceType.PAWN && (row == 8 || row == 1)){
-                pPromotion(origin, newPosition, moves);
-            } else {
-                moves.add(new ChessMove(origin, newPosition, null));
-            }
-            if(type == PieceType.QUEEN || type == PieceType.BISHOP || type == PieceType.ROOK) {
-                path(board, origin, newPosition, rowDir, colDir, moves);
-            }
-        }else if (board.getPiece(newPosition).getTeamColor() != pieceColor && type != PieceType.PAWN) {
-            moves.add(new ChessMove(origin, newPosition, null));
-        }
-    }
-
     /**
      * Calculates all the positions a chess piece can move to
      * Does not take into account moves that are illegal due to leaving the king in
@@ -110,61 +87,9 @@ public class ChessPiece {
      * @return Collection of valid moves
      */
     public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
-        ArrayList<ChessMove> moves = new ArrayList<>();
-        if(type == PieceType.BISHOP){
-            path(board, myPosition, myPosition, 1, 1, moves);
-            path(board, myPosition, myPosition, 1, -1, moves);
-            path(board, myPosition, myPosition, -1, 1, moves);
-            path(board, myPosition, myPosition, -1, -1, moves);
-        } else if (type == PieceType.ROOK){
-            path(board, myPosition, myPosition, 1, 0, moves);
-            path(board, myPosition, myPosition, 0, 1, moves);
-            path(board, myPosition, myPosition, -1, 0, moves);
-            path(board, myPosition, myPosition, 0, -1, moves);
-        } else if (type == PieceType.QUEEN || type == PieceType.KING) {
-            path(board, myPosition, myPosition, 1, 1, moves);
-            path(board, myPosition, myPosition, 1, -1, moves);
-            path(board, myPosition, myPosition, -1, 1, moves);
-            path(board, myPosition, myPosition, -1, -1, moves);
-
-            path(board, myPosition, myPosition, 1, 0, moves);
-            path(board, myPosition, myPosition, 0, 1, moves);
-            path(board, myPosition, myPosition, -1, 0, moves);
-            path(board, myPosition, myPosition, 0, -1, moves);
-        }  else if(type == PieceType.KNIGHT){
-            path(board, myPosition, myPosition, 1, 2, moves);
-            path(board, myPosition, myPosition, 1, -2, moves);
-            path(board, myPosition, myPosition, -1, 2, moves);
-            path(board, myPosition, myPosition, -1, -2, moves);
-            path(board, myPosition, myPosition, 2, 1, moves);
-            path(board, myPosition, myPosition, 2, -1, moves);
-            path(board, myPosition, myPosition, -2, 1, moves);
-            path(board, myPosition, myPosition, -2, -1, moves);
-        }else if (type == PieceType.PAWN){
-            int rowDir = 0;
-
-            if(pieceColor == ChessGame.TeamColor.WHITE) {
-                rowDir = 1;
-            }else{
-                rowDir = -1;
-            }
-
-            int row = myPosition.getRow();
-            int col = myPosition.getColumn();
-            ChessPosition nextPosition = new ChessPosition(row + rowDir, col);
-            boolean isStartRow = (row == 2 || row == 7);
-            boolean isPathClear = board.getPiece(nextPosition) == null;
-
-            if(isStartRow && isPathClear) {
-                path(board, myPosition, myPosition, rowDir, 0, moves);
-                pCapture(board, myPosition, rowDir, moves);
-                path(board, myPosition, nextPosition, rowDir, 0, moves);
-            }else{
-                path(board, myPosition, myPosition, rowDir, 0, moves);
-                pCapture(board, myPosition, rowDir, moves);
-            }
-        }
-        return moves;
+        MoveList moves = new MoveList(32);
+        MoveGenerator.addPieceMoves(board, pieceColor, type, ChessBoard.square(myPosition), moves);
+        return moves.toChessMoves();
     }
 
     @Override
@@ -189,4 +114,46 @@ public class ChessPiece {
     public int hashCode() {
         return Objects.hash(pieceColor, type);
     }
+
+    /**
+     * Reads and writes the same {"pieceColor", "type"} shape as reflection
+     * would, but hands back the shared instance.
+     */
+    static class Adapter extends TypeAdapter<ChessPiece> {
+        @Override
+        public void write(JsonWriter out, ChessPiece piece) throws IOException {
+            if (piece == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("pieceColor").value(piece.pieceColor.name());
+            out.name("type").value(piece.type.name());
+            out.endObject();
+        }
+
+        @Override
+        public ChessPiece read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            ChessGame.TeamColor color = null;
+            PieceType type = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "pieceColor" -> color = ChessGame.TeamColor.valueOf(in.nextString());
+                    case "type" -> type = PieceType.valueOf(in.nextString());
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            if (color == null || type == null) {
+                throw new IOException("Chess piece is missing its " + (color == null ? "pieceColor" : "type")
+                        + " at " + in.getPath());
+            }
+            return of(color, type);
+        }
+    }
 }
@@ -0,0 +1,184 @@
+package chess;
+
+/**
+ * Reads and writes positions in Forsyth-Edwards Notation: piece placement,
+ * side to move, castling rights, en passant square, halfmove clock and
+ * fullmove number. This engine plays neither castling nor en passant, so those
+ * two fields are carried on the game for round trips but never create moves.
+ * The last four fields may be left off, as many tools do; they then default
+ * to "- - 0 1".
+ */
+public final class Fen {
+
+    public static final String START_POSITION = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    // indexed by PieceType ordinal
+    private static final String PIECE_LETTERS = "kqbnrp";
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+    // in the order of the ChessGame castling bits
+    private static final String CASTLING_LETTERS = "KQkq";
+
+    private Fen() {
+    }
+
+    /**
+     * @return a new game set up from the given FEN string
+     * @throws IllegalArgumentException if any field is malformed
+     */
+    public static ChessGame parse(String fen) {
+        String[] fields = fen.trim().split("\\s+");
+        if (fields.length > 6) {
+            throw new IllegalArgumentException("FEN has more than 6 fields: " + fen);
+        }
+        ChessGame game = new ChessGame();
+        game.setBoard(parsePlacement(fields[0], fen));
+        game.setTeamTurn(fields.length < 2 ? ChessGame.TeamColor.WHITE : parseTurn(fields[1], fen));
+        game.setFenState(
+                fields.length < 3 ? 0 : parseCastling(fields[2], fen),
+                fields.length < 4 ? -1 : parseEnPassant(fields[3], fen),
+                fields.length < 5 ? 0 : parseCounter(fields[4], 0, fen),
+                fields.length < 6 ? 1 : parseCounter(fields[5], 1, fen));
+        return game;
+    }
+
+    /**
+     * @return the full six-field FEN string for the game
+     */
+    public static String format(ChessGame game) {
+        StringBuilder builder = new StringBuilder(placement(game.getBoard()));
+        builder.append(game.getTeamTurn() == ChessGame.TeamColor.WHITE ? " w " : " b ");
+
+        int rights = game.getCastlingRights();
+        if (rights == 0) {
+            builder.append('-');
+        }
+        for (int i = 0; i < CASTLING_LETTERS.length(); i++) {
+            if ((rights & 1 << i) != 0) {
+                builder.append(CASTLING_LETTERS.charAt(i));
+            }
+        }
+
+        ChessPosition enPassant = game.getEnPassantSquare();
+        builder.append(' ').append(enPassant == null ? "-" : squareName(enPassant));
+        builder.append(' ').append(game.getHalfmoveClock());
+        builder.append(' ').append(game.getFullmoveNumber());
+        return builder.toString();
+    }
+
+    /**
+     * @return the piece placement field for a board, rank 8 first
+     */
+    public static String placement(ChessBoard board) {
+        StringBuilder builder = new StringBuilder();
+        for (int row = 8; row >= 1; row--) {
+            int empty = 0;
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = board.getPiece(ChessPosition.of(row, col));
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    builder.append(empty);
+                    empty = 0;
+                }
+                char letter = PIECE_LETTERS.charAt(piece.getPieceType().ordinal());
+                builder.append(piece.getTeamColor() == ChessGame.TeamColor.WHITE ? Character.toUpperCase(letter) : letter);
+            }
+            if (empty > 0) {
+                builder.append(empty);
+            }
+            if (row > 1) {
+                builder.append('/');
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * @return a board holding the pieces of a FEN placement field
+     * @throws IllegalArgumentException if the placement is malformed
+     */
+    public static ChessBoard parsePlacement(String placement) {
+        return parsePlacement(placement, placement);
+    }
+
+    private static ChessBoard parsePlacement(String placement, String fen) {
+        String[] ranks = placement.split("/");
+        if (ranks.length != 8) {
+            throw new IllegalArgumentException("FEN must have 8 ranks: " + fen);
+        }
+        ChessBoard board = new ChessBoard();
+        for (int i = 0; i < 8; i++) {
+            int row = 8 - i;
+            int col = 1;
+            for (char c : ranks[i].toCharArray()) {
+                if (c >= '1' && c <= '8') {
+                    col += c - '0';
+                    continue;
+                }
+                int type = PIECE_LETTERS.indexOf(Character.toLowerCase(c));
+                if (type < 0 || col > 8) {
+                    throw new IllegalArgumentException("Bad rank '" + ranks[i] + "' in FEN: " + fen);
+                }
+                ChessGame.TeamColor color = Character.isUpperCase(c) ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+                board.addPiece(ChessPosition.of(row, col), ChessPiece.of(color, TYPES[type]));
+                col++;
+            }
+            if (col != 9) {
+                throw new IllegalArgumentException("Rank '" + ranks[i] + "' does not cover 8 files in FEN: " + fen);
+            }
+        }
+        return board;
+    }
+
+    private static ChessGame.TeamColor parseTurn(String field, String fen) {
+        return switch (field) {
+            case "w" -> ChessGame.TeamColor.WHITE;
+            case "b" -> ChessGame.TeamColor.BLACK;
+            default -> throw new IllegalArgumentException("Bad side to move '" + field + "' in FEN: " + fen);
+        };
+    }
+
+    private static int parseCastling(String field, String fen) {
+        if (field.equals("-")) {
+            return 0;
+        }
+        int rights = 0;
+        for (char c : field.toCharArray()) {
+            int bit = CASTLING_LETTERS.indexOf(c);
+            if (bit < 0 || (rights & 1 << bit) != 0) {
+                throw new IllegalArgumentException("Bad castling field '" + field + "' in FEN: " + fen);
+            }
+            rights |= 1 << bit;
+        }
+        return rights;
+    }
+
+    private static int parseEnPassant(String field, String fen) {
+        if (field.equals("-")) {
+            return -1;
+        }
+        if (field.length() != 2 || field.charAt(0) < 'a' || field.charAt(0) > 'h'
+                || (field.charAt(1) != '3' && field.charAt(1) != '6')) {
+            throw new IllegalArgumentException("Bad en passant square '" + field + "' in FEN: " + fen);
+        }
+        return (field.charAt(1) - '1') * 8 + (field.charAt(0) - 'a');
+    }
+
+    private static int parseCounter(String field, int min, String fen) {
+        try {
+            int value = Integer.parseInt(field);
+            if (value >= min) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // fall through to the error below
+        }
+        throw new IllegalArgumentException("Bad move counter '" + field + "' in FEN: " + fen);
+    }
+
+    private static String squareName(ChessPosition position) {
+        return "" + (char) ('a' + position.getColumn() - 1) + position.getRow();
+    }
+}
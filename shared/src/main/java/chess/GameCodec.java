@@ -0,0 +1,188 @@
+package chess;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary encoding of a {@link ChessGame} for storage. A new game takes about
+ * 40 bytes and each move adds 2, plus 8 for its position key until the next
+ * capture or pawn move, against several kilobytes for the reflective Gson
+ * JSON it replaced.
+ * <pre>
+ *  byte     format version
+ *  byte     flags: 1 = black to move, 2 = game over, 4 = winner follows
+ *  byte     game status ordinal
+ *  byte     castling rights
+ *  byte     en passant square, or -1
+ *  varint   halfmove clock
+ *  varint   fullmove number
+ *  long     occupied squares, a1 = bit 0
+ *  nibbles  piece index (color * 6 + type) of each occupied square in square
+ *           order, two per byte, low nibble first
+ *  utf      winner, if flagged
+ *  varint   number of moves, then each move as a short (from | to &lt;&lt; 6 | promotion &lt;&lt; 12)
+ *  varint   number of position keys since the last irreversible move, then each key as a long
+ *           (version 2 on; version 1 data starts the history at the current position)
+ * </pre>
+ * The version byte comes first so older formats can still be read after the
+ * layout changes.
+ */
+public final class GameCodec {
+
+    public static final int VERSION = 2;
+
+    private static final int BLACK_TO_MOVE = 1;
+    private static final int GAME_OVER = 2;
+    private static final int HAS_WINNER = 4;
+    private static final ChessGame.GameStatus[] STATUSES = ChessGame.GameStatus.values();
+
+    private GameCodec() {
+    }
+
+    public static byte[] encode(ChessGame game) {
+        var bytes = new ByteArrayOutputStream(64 + 2 * game.getMoveHistory().size());
+        try (var out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            int flags = (game.getTeamTurn() == ChessGame.TeamColor.BLACK ? BLACK_TO_MOVE : 0)
+                    | (game.isGameOver() ? GAME_OVER : 0)
+                    | (game.getWinner() != null ? HAS_WINNER : 0);
+            out.writeByte(flags);
+            out.writeByte(game.getGameStatus().ordinal());
+            out.writeByte(game.getCastlingRights());
+            ChessPosition enPassant = game.getEnPassantSquare();
+            out.writeByte(enPassant == null ? -1 : ChessBoard.square(enPassant));
+            writeVarInt(out, game.getHalfmoveClock());
+            writeVarInt(out, game.getFullmoveNumber());
+
+            writeBoard(out, game.getBoard());
+
+            if (game.getWinner() != null) {
+                out.writeUTF(game.getWinner());
+            }
+            List<ChessMove> moves = game.getMoveHistory();
+            writeVarInt(out, moves.size());
+            for (ChessMove move : moves) {
+                out.writeShort(PackedMove.fromChessMove(move));
+            }
+            long[] history = game.getPositionHistory();
+            writeVarInt(out, history.length);
+            for (long key : history) {
+                out.writeLong(key);
+            }
+        } catch (IOException e) {
+            // a ByteArrayOutputStream never throws
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the bytes are not a game in a known format version
+     */
+    public static ChessGame decode(byte[] data) {
+        try (var in = new DataInputStream(new ByteArrayInputStream(data))) {
+            int version = in.readUnsignedByte();
+            if (version < 1 || version > VERSION) {
+                throw new IllegalArgumentException("Unknown game format version " + version);
+            }
+            int flags = in.readUnsignedByte();
+            int status = in.readUnsignedByte();
+            int castling = in.readUnsignedByte();
+            int enPassant = in.readByte();
+            int halfmoveClock = readVarInt(in);
+            int fullmoveNumber = readVarInt(in);
+            if (status >= STATUSES.length || enPassant < -1 || enPassant > 63) {
+                throw new IllegalArgumentException("Corrupt game header");
+            }
+
+            ChessGame game = new ChessGame();
+            game.setBoard(readBoard(in));
+            game.setTeamTurn((flags & BLACK_TO_MOVE) != 0 ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE);
+            game.setFenState(castling, enPassant, halfmoveClock, fullmoveNumber);
+            game.setGameOver((flags & GAME_OVER) != 0);
+            if ((flags & HAS_WINNER) != 0) {
+                game.setWinner(in.readUTF());
+            }
+
+            int count = readVarInt(in);
+            List<ChessMove> moves = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                moves.add(PackedMove.toChessMove(in.readUnsignedShort()));
+            }
+            long[] history = null;
+            if (version >= 2) {
+                history = new long[readVarInt(in)];
+                for (int i = 0; i < history.length; i++) {
+                    history[i] = in.readLong();
+                }
+            }
+            game.restore(moves, STATUSES[status], history);
+            return game;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Truncated game data", e);
+        }
+    }
+
+    private static void writeBoard(DataOutputStream out, ChessBoard board) throws IOException {
+        long occupied = board.getOccupancy();
+        out.writeLong(occupied);
+        int pending = -1;
+        for (long bits = occupied; bits != 0; bits &= bits - 1) {
+            int index = board.pieceIndexAt(Long.numberOfTrailingZeros(bits));
+            if (pending < 0) {
+                pending = index;
+            } else {
+                out.writeByte(pending | index << 4);
+                pending = -1;
+            }
+        }
+        if (pending >= 0) {
+            out.writeByte(pending);
+        }
+    }
+
+    private static ChessBoard readBoard(DataInputStream in) throws IOException {
+        ChessBoard board = new ChessBoard();
+        long occupied = in.readLong();
+        int packed = 0;
+        boolean high = false;
+        for (long bits = occupied; bits != 0; bits &= bits - 1) {
+            if (!high) {
+                packed = in.readUnsignedByte();
+            }
+            int index = high ? packed >>> 4 : packed & 0xF;
+            high = !high;
+            if (index >= 2 * ChessBoard.PIECE_TYPES) {
+                throw new IllegalArgumentException("Corrupt board data");
+            }
+            board.addPiece(ChessPosition.fromSquare(Long.numberOfTrailingZeros(bits)), ChessPiece.fromIndex(index));
+        }
+        return board;
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte(value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Corrupt varint");
+    }
+}
@@ -0,0 +1,251 @@
+package chess;
+
+/**
+ * Generates moves straight from the board's bitboards into a {@link MoveList}
+ * of {@link PackedMove} ints, without allocating.
+ * <p>
+ * Pseudo-legal moves follow each piece's movement rules but may leave the
+ * mover's king in check. Legal generation works out checkers and pinned
+ * pieces once up front, so every move it emits is legal without a
+ * make/unmake test; only king steps need an attack lookup.
+ */
+public final class MoveGenerator {
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+    private static final int[] PROMOTIONS = {
+            ChessPiece.PieceType.QUEEN.ordinal(),
+            ChessPiece.PieceType.BISHOP.ordinal(),
+            ChessPiece.PieceType.ROOK.ordinal(),
+            ChessPiece.PieceType.KNIGHT.ordinal()
+    };
+    private static final long PROMOTION_RANKS = 0xFF000000000000FFL;
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * Appends every legal move for the given color.
+     */
+    public static void generateLegal(ChessBoard board, ChessGame.TeamColor color, MoveList moves) {
+        generateLegal(board, color, -1L, moves);
+    }
+
+    /**
+     * Appends the legal moves of the given color's pieces that stand on one of
+     * the squares in fromSquares.
+     */
+    public static void generateLegal(ChessBoard board, ChessGame.TeamColor color, long fromSquares, MoveList moves) {
+        generateLegal(board, color, fromSquares, -1L, -1L, moves);
+    }
+
+    /**
+     * Appends the legal captures and promotions for the given color: the
+     * moves that change the material on the board. A search generates these
+     * first, and with {@link #generateLegalQuiets} later only if it needs to.
+     */
+    public static void generateLegalCaptures(ChessBoard board, ChessGame.TeamColor color, MoveList moves) {
+        long enemies = board.getOccupancy(color.opponent());
+        generateLegal(board, color, -1L, enemies, enemies | PROMOTION_RANKS, moves);
+    }
+
+    /**
+     * Appends the legal moves for the given color that
+     * {@link #generateLegalCaptures} leaves out.
+     */
+    public static void generateLegalQuiets(ChessBoard board, ChessGame.TeamColor color, MoveList moves) {
+        long enemies = board.getOccupancy(color.opponent());
+        generateLegal(board, color, -1L, ~enemies, ~(enemies | PROMOTION_RANKS), moves);
+    }
+
+    /**
+     * @param toSquares     end squares allowed for pieces other than pawns
+     * @param pawnToSquares end squares allowed for pawns
+     */
+    private static void generateLegal(ChessBoard board, ChessGame.TeamColor color, long fromSquares,
+                                      long toSquares, long pawnToSquares, MoveList moves) {
+        int king = board.getKingSquare(color);
+        if (king < 0) {
+            // without a king nothing can be pinned or in check
+            long occupied = board.getOccupancy();
+            long own = board.getOccupancy(color);
+            for (ChessPiece.PieceType type : TYPES) {
+                boolean pawn = type == ChessPiece.PieceType.PAWN;
+                for (long bits = board.getBitboard(color, type) & fromSquares; bits != 0; bits &= bits - 1) {
+                    int from = Long.numberOfTrailingZeros(bits);
+                    long targets = pawn ? pawnTargets(color, from, occupied, occupied & ~own) & pawnToSquares
+                            : AttackTables.attacks(color, type, from, occupied) & ~own & toSquares;
+                    addTargets(from, targets, occupied & ~own, pawn, moves);
+                }
+            }
+            return;
+        }
+
+        ChessGame.TeamColor them = color.opponent();
+        long occupied = board.getOccupancy();
+        long own = board.getOccupancy(color);
+        long enemies = occupied & ~own;
+
+        if ((fromSquares & (1L << king)) != 0) {
+            long targets = AttackTables.kingAttacks(king) & ~own & toSquares;
+            long withoutKing = occupied & ~(1L << king);
+            for (long bits = targets; bits != 0; bits &= bits - 1) {
+                int to = Long.numberOfTrailingZeros(bits);
+                if (!board.isSquareAttacked(to, them, withoutKing)) {
+                    moves.add(PackedMove.of(king, to, -1, (enemies & (1L << to)) != 0 ? PackedMove.CAPTURE : 0));
+                }
+            }
+        }
+
+        long checkers = board.attackersOf(king, them, occupied);
+        if (Long.bitCount(checkers) > 1) {
+            return;
+        }
+        // with one checker, a move must capture it or step between it and the king
+        long evasions = checkers == 0 ? -1L
+                : checkers | AttackTables.between(king, Long.numberOfTrailingZeros(checkers));
+        long pinned = pinnedPieces(board, color, king, occupied, own);
+
+        for (ChessPiece.PieceType type : TYPES) {
+            if (type == ChessPiece.PieceType.KING) {
+                continue;
+            }
+            boolean pawn = type == ChessPiece.PieceType.PAWN;
+            for (long bits = board.getBitboard(color, type) & fromSquares; bits != 0; bits &= bits - 1) {
+                int from = Long.numberOfTrailingZeros(bits);
+                long targets = pawn ? pawnTargets(color, from, occupied, enemies) & pawnToSquares
+                        : AttackTables.attacks(color, type, from, occupied) & ~own & toSquares;
+                targets &= evasions;
+                if ((pinned & (1L << from)) != 0) {
+                    // a pinned piece may only slide along the line through its king
+                    targets &= AttackTables.line(king, from);
+                }
+                addTargets(from, targets, enemies, pawn, moves);
+            }
+        }
+    }
+
+    /**
+     * Checks a single move for legality without generating the rest of the
+     * position's moves: the end square must be one the piece can reach, the
+     * promotion must match the end rank, and the mover's king must be safe
+     * afterwards.
+     *
+     * @return True if the move is legal for the given color
+     */
+    public static boolean isLegal(ChessBoard board, ChessGame.TeamColor color, int move) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        ChessPiece piece = board.getPiece(ChessPosition.fromSquare(from));
+        if (piece == null || piece.getTeamColor() != color) {
+            return false;
+        }
+
+        long occupied = board.getOccupancy();
+        long own = board.getOccupancy(color);
+        boolean pawn = piece.getPieceType() == ChessPiece.PieceType.PAWN;
+        long targets = pawn ? pawnTargets(color, from, occupied, occupied & ~own)
+                : AttackTables.attacks(color, piece.getPieceType(), from, occupied) & ~own;
+        if ((targets & (1L << to)) == 0) {
+            return false;
+        }
+
+        int promotion = PackedMove.promotion(move);
+        boolean promotes = pawn && ((1L << to) & PROMOTION_RANKS) != 0;
+        if (promotes != (promotion >= 0)) {
+            return false;
+        }
+        if (promotes && promotion != PROMOTIONS[0] && promotion != PROMOTIONS[1]
+                && promotion != PROMOTIONS[2] && promotion != PROMOTIONS[3]) {
+            return false;
+        }
+
+        board.makeMove(from, to, promotion);
+        boolean legal = !board.isInCheck(color);
+        board.unmakeMove();
+        return legal;
+    }
+
+    /**
+     * @return bitboard of the given color's pieces that are pinned to its king
+     */
+    static long pinnedPieces(ChessBoard board, ChessGame.TeamColor color, int king, long occupied, long own) {
+        ChessGame.TeamColor them = color.opponent();
+        long enemies = occupied & ~own;
+        long queens = board.getBitboard(them, ChessPiece.PieceType.QUEEN);
+        // enemy sliders that would hit the king if our own pieces were not in the way
+        long snipers = (AttackTables.rookAttacks(king, enemies)
+                & (board.getBitboard(them, ChessPiece.PieceType.ROOK) | queens))
+                | (AttackTables.bishopAttacks(king, enemies)
+                & (board.getBitboard(them, ChessPiece.PieceType.BISHOP) | queens));
+
+        long pinned = 0;
+        for (; snipers != 0; snipers &= snipers - 1) {
+            long blockers = AttackTables.between(king, Long.numberOfTrailingZeros(snipers)) & occupied;
+            if (blockers != 0 && (blockers & (blockers - 1)) == 0 && (blockers & own) != 0) {
+                pinned |= blockers;
+            }
+        }
+        return pinned;
+    }
+
+    /**
+     * Appends the pseudo-legal moves of every piece of the given color.
+     */
+    public static void generatePseudoLegal(ChessBoard board, ChessGame.TeamColor color, MoveList moves) {
+        for (ChessPiece.PieceType type : TYPES) {
+            for (long bits = board.getBitboard(color, type); bits != 0; bits &= bits - 1) {
+                addPieceMoves(board, color, type, Long.numberOfTrailingZeros(bits), moves);
+            }
+        }
+    }
+
+    /**
+     * Appends the pseudo-legal moves of a piece of the given color and type
+     * standing on square from.
+     */
+    public static void addPieceMoves(ChessBoard board, ChessGame.TeamColor color, ChessPiece.PieceType type,
+                                     int from, MoveList moves) {
+        long occupied = board.getOccupancy();
+        long own = board.getOccupancy(color);
+        long enemies = occupied & ~own;
+
+        if (type == ChessPiece.PieceType.PAWN) {
+            addTargets(from, pawnTargets(color, from, occupied, enemies), enemies, true, moves);
+        } else {
+            addTargets(from, AttackTables.attacks(color, type, from, occupied) & ~own, enemies, false, moves);
+        }
+    }
+
+    static long pawnTargets(ChessGame.TeamColor color, int from, long occupied, long enemies) {
+        long targets = AttackTables.pawnAttacks(color, from) & enemies;
+        int forward = color == ChessGame.TeamColor.WHITE ? 8 : -8;
+        int next = from + forward;
+        if (next < 0 || next > 63 || (occupied & (1L << next)) != 0) {
+            return targets;
+        }
+        targets |= 1L << next;
+
+        int row = from / 8 + 1;
+        boolean isStartRow = color == ChessGame.TeamColor.WHITE ? row == 2 : row == 7;
+        if (isStartRow && (occupied & (1L << (next + forward))) == 0) {
+            targets |= 1L << (next + forward);
+        }
+        return targets;
+    }
+
+    static void addTargets(int from, long targets, long enemies, boolean pawn, MoveList moves) {
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            long bit = targets & -targets;
+            targets ^= bit;
+            int flags = (enemies & bit) != 0 ? PackedMove.CAPTURE : 0;
+            if (pawn && (bit & PROMOTION_RANKS) != 0) {
+                for (int promotion : PROMOTIONS) {
+                    moves.add(PackedMove.of(from, to, promotion, flags));
+                }
+            } else {
+                moves.add(PackedMove.of(from, to, -1, flags));
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package chess;
+
+/**
+ * Encodes a move in a single int so move generation and search can work
+ * without allocating {@link ChessMove} objects:
+ * <pre>
+ *  bits  0-5   start square (0-63, a1 = 0)
+ *  bits  6-11  end square
+ *  bits 12-14  promotion piece type ordinal + 1, or 0 for no promotion
+ *  bit  15     capture flag
+ * </pre>
+ * {@link #NONE} is never a real move because it starts and ends on a1.
+ * Conversion to and from ChessMove happens only at the API boundary.
+ */
+public final class PackedMove {
+
+    public static final int NONE = 0;
+    public static final int CAPTURE = 1 << 15;
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+    // indexed by PieceType ordinal
+    private static final String PIECE_LETTERS = "kqbnrp";
+
+    private PackedMove() {
+    }
+
+    public static int of(int from, int to) {
+        return from | to << 6;
+    }
+
+    /**
+     * @param promotion piece type ordinal to promote to, or -1 for none
+     * @param flags     {@link #CAPTURE} or 0
+     */
+    public static int of(int from, int to, int promotion, int flags) {
+        return from | to << 6 | (promotion + 1) << 12 | flags;
+    }
+
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    /**
+     * @return the promotion piece type ordinal, or -1 if the move is not a promotion
+     */
+    public static int promotion(int move) {
+        return ((move >>> 12) & 7) - 1;
+    }
+
+    public static boolean isCapture(int move) {
+        return (move & CAPTURE) != 0;
+    }
+
+    public static boolean isPromotion(int move) {
+        return (move & (7 << 12)) != 0;
+    }
+
+    /**
+     * Packs a ChessMove. The capture flag is not set because a ChessMove does
+     * not know what stands on its end square.
+     */
+    public static int fromChessMove(ChessMove move) {
+        ChessPiece.PieceType promotion = move.getPromotionPiece();
+        return of(ChessBoard.square(move.getStartPosition()), ChessBoard.square(move.getEndPosition()),
+                promotion == null ? -1 : promotion.ordinal(), 0);
+    }
+
+    public static ChessMove toChessMove(int move) {
+        int promotion = promotion(move);
+        return new ChessMove(ChessPosition.fromSquare(from(move)), ChessPosition.fromSquare(to(move)),
+                promotion < 0 ? null : TYPES[promotion]);
+    }
+
+    /**
+     * @return the move in coordinate notation, e.g. e2e4 or a7a8q
+     */
+    public static String toString(int move) {
+        StringBuilder builder = new StringBuilder(5);
+        appendSquare(builder, from(move));
+        appendSquare(builder, to(move));
+        int promotion = promotion(move);
+        if (promotion >= 0) {
+            builder.append(PIECE_LETTERS.charAt(promotion));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * @param text a move in coordinate notation, e.g. e2e4 or a7a8q
+     * @return the packed move, without the capture flag
+     * @throws IllegalArgumentException if the text is not a move
+     */
+    public static int parse(String text) {
+        if (text.length() != 4 && text.length() != 5) {
+            throw new IllegalArgumentException("Bad move: " + text);
+        }
+        int promotion = text.length() == 5 ? PIECE_LETTERS.indexOf(text.charAt(4)) : -1;
+        if (text.length() == 5 && promotion < 0) {
+            throw new IllegalArgumentException("Bad promotion piece in move: " + text);
+        }
+        return of(parseSquare(text, 0), parseSquare(text, 2), promotion, 0);
+    }
+
+    private static int parseSquare(String text, int index) {
+        char file = text.charAt(index);
+        char rank = text.charAt(index + 1);
+        if (file < 'a' || file > 'h' || rank < '1' || rank > '8') {
+            throw new IllegalArgumentException("Bad square in move: " + text);
+        }
+        return (rank - '1') * 8 + (file - 'a');
+    }
+
+    private static void appendSquare(StringBuilder builder, int square) {
+        builder.append((char) ('a' + square % 8)).append((char) ('1' + square / 8));
+    }
+}
@@ -0,0 +1,175 @@
+package chess;
+
+/**
+ * Static exchange evaluation: what a capture wins or loses once both sides
+ * have recaptured on its end square for as long as it pays them, worked out
+ * from {@link ChessBoard#attackersOf} without playing any moves. Each side
+ * recaptures with its least valuable attacker, and sliders lined up behind an
+ * attacker join in once it has gone. Pins are not taken into account.
+ */
+public final class StaticExchange {
+
+    // indexed by PieceType ordinal: king, queen, bishop, knight, rook, pawn
+    private static final int[] VALUES = {20000, 900, 330, 320, 500, 100};
+    // least valuable first
+    private static final ChessPiece.PieceType[] CAPTURE_ORDER = {
+            ChessPiece.PieceType.PAWN, ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.BISHOP,
+            ChessPiece.PieceType.ROOK, ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.KING
+    };
+
+    private StaticExchange() {
+    }
+
+    /**
+     * @param move a {@link PackedMove} for the piece on its start square
+     * @return the material the mover ends up with, in centipawns: positive if
+     * the move wins material, 0 for an even trade or a safe quiet move, and
+     * negative if it loses material
+     */
+    public static int evaluate(ChessBoard board, int move) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        ChessPiece moving = board.getPiece(ChessPosition.fromSquare(from));
+        if (moving == null) {
+            return 0;
+        }
+        ChessPiece captured = board.getPiece(ChessPosition.fromSquare(to));
+        ChessGame.TeamColor side = moving.getTeamColor();
+        int promotion = PackedMove.promotion(move);
+
+        // gain[d] is what the side making capture d has won if the exchange stops after it
+        int[] gain = new int[32];
+        gain[0] = captured == null ? 0 : VALUES[captured.getPieceType().ordinal()];
+        int onSquare = VALUES[moving.getPieceType().ordinal()];
+        if (promotion >= 0) {
+            gain[0] += VALUES[promotion] - VALUES[ChessPiece.PieceType.PAWN.ordinal()];
+            onSquare = VALUES[promotion];
+        }
+
+        long occupied = board.getOccupancy() & ~(1L << from);
+        long attackers = (board.attackersOf(to, ChessGame.TeamColor.WHITE, occupied)
+                | board.attackersOf(to, ChessGame.TeamColor.BLACK, occupied)) & occupied;
+        int depth = 0;
+        while (depth < gain.length - 1) {
+            side = side.opponent();
+            long own = attackers & board.getOccupancy(side);
+            if (own == 0) {
+                break;
+            }
+            ChessPiece.PieceType type = leastValuable(board, side, own);
+            depth++;
+            gain[depth] = onSquare - gain[depth - 1];
+            onSquare = VALUES[type.ordinal()];
+            long bit = Long.lowestOneBit(own & board.getBitboard(side, type));
+            occupied &= ~bit;
+            // the capturing piece may have been screening a slider
+            attackers = (board.attackersOf(to, ChessGame.TeamColor.WHITE, occupied)
+                    | board.attackersOf(to, ChessGame.TeamColor.BLACK, occupied)) & occupied;
+        }
+        // either side may stop the exchange when going on would cost it
+        while (depth > 0) {
+            gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+            depth--;
+        }
+        return gain[0];
+    }
+
+    /**
+     * Answers whether {@link #evaluate} would be at least the threshold,
+     * without working out the exact value and without allocating, so the
+     * search can sort out losing captures cheaply. The swap loop stops as
+     * soon as one side can stand pat on the threshold.
+     */
+    public static boolean isAtLeast(ChessBoard board, int move, int threshold) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        ChessPiece moving = board.getPiece(ChessPosition.fromSquare(from));
+        if (moving == null) {
+            return 0 >= threshold;
+        }
+        ChessPiece captured = board.getPiece(ChessPosition.fromSquare(to));
+        int promotion = PackedMove.promotion(move);
+
+        // swap is how far the side to capture next is from the threshold if it stops here
+        int swap = (captured == null ? 0 : VALUES[captured.getPieceType().ordinal()]) - threshold;
+        int onSquare = VALUES[moving.getPieceType().ordinal()];
+        if (promotion >= 0) {
+            swap += VALUES[promotion] - VALUES[ChessPiece.PieceType.PAWN.ordinal()];
+            onSquare = VALUES[promotion];
+        }
+        if (swap < 0) {
+            return false;
+        }
+        swap = onSquare - swap;
+        if (swap <= 0) {
+            // even losing the moved piece leaves the mover at the threshold
+            return true;
+        }
+
+        ChessGame.TeamColor side = moving.getTeamColor();
+        long occupied = board.getOccupancy() & ~(1L << from) & ~(1L << to);
+        long attackers = (board.attackersOf(to, ChessGame.TeamColor.WHITE, occupied)
+                | board.attackersOf(to, ChessGame.TeamColor.BLACK, occupied)) & occupied;
+        // 1 while the mover is at or above the threshold
+        int result = 1;
+        while (true) {
+            side = side.opponent();
+            long own = attackers & board.getOccupancy(side);
+            if (own == 0) {
+                break;
+            }
+            result ^= 1;
+            ChessPiece.PieceType type = leastValuable(board, side, own);
+            if (type == ChessPiece.PieceType.KING) {
+                // the king may only recapture if nothing can take it back
+                return ((attackers & ~board.getOccupancy(side)) != 0 ? result ^ 1 : result) == 1;
+            }
+            swap = VALUES[type.ordinal()] - swap;
+            if (swap < result) {
+                break;
+            }
+            occupied &= ~Long.lowestOneBit(own & board.getBitboard(side, type));
+            attackers = (board.attackersOf(to, ChessGame.TeamColor.WHITE, occupied)
+                    | board.attackersOf(to, ChessGame.TeamColor.BLACK, occupied)) & occupied;
+        }
+        return result == 1;
+    }
+
+    /**
+     * @see #evaluate(ChessBoard, int)
+     */
+    public static int evaluate(ChessBoard board, ChessMove move) {
+        return evaluate(board, PackedMove.fromChessMove(move));
+    }
+
+    /**
+     * Finds the pieces of the given color that the other side could win
+     * material by capturing, for hints such as "your knight is hanging".
+     *
+     * @return bitboard of the hanging pieces; the king is never included
+     */
+    public static long hangingPieces(ChessBoard board, ChessGame.TeamColor color) {
+        long hanging = 0;
+        long pieces = board.getOccupancy(color) & ~board.getBitboard(color, ChessPiece.PieceType.KING);
+        for (; pieces != 0; pieces &= pieces - 1) {
+            int square = Long.numberOfTrailingZeros(pieces);
+            for (long attackers = board.attackersOf(square, color.opponent()); attackers != 0; attackers &= attackers - 1) {
+                int capture = PackedMove.of(Long.numberOfTrailingZeros(attackers), square, -1, PackedMove.CAPTURE);
+                if (isAtLeast(board, capture, 1)) {
+                    hanging |= 1L << square;
+                    break;
+                }
+            }
+        }
+        return hanging;
+    }
+
+    private static ChessPiece.PieceType leastValuable(ChessBoard board, ChessGame.TeamColor side, long attackers) {
+        for (ChessPiece.PieceType type : CAPTURE_ORDER) {
+            if ((attackers & board.getBitboard(side, type)) != 0) {
+                return type;
+            }
+        }
+        throw new IllegalStateException("No attacker in " + Long.toHexString(attackers));
+    }
+}
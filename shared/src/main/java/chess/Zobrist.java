@@ -0,0 +1,54 @@
+package chess;
+
+/**
+ * Random keys for Zobrist hashing. A position's key is the XOR of the key for
+ * every piece on its square, plus {@link #sideToMoveKey()} when black is to
+ * move, so a move updates it with a couple of XORs instead of a board scan.
+ * <p>
+ * The keys come from a fixed seed so that the same position hashes to the
+ * same value in every JVM, which lets keys be stored and compared between
+ * the client and the server.
+ */
+public final class Zobrist {
+
+    private static final long[] PIECE_SQUARE = new long[2 * ChessBoard.PIECE_TYPES * 64];
+    private static final long SIDE_TO_MOVE;
+
+    static {
+        long state = 0x2F7C3A1D5B9E8C41L;
+        for (int i = 0; i < PIECE_SQUARE.length; i++) {
+            state += 0x9E3779B97F4A7C15L;
+            PIECE_SQUARE[i] = mix(state);
+        }
+        state += 0x9E3779B97F4A7C15L;
+        SIDE_TO_MOVE = mix(state);
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * @return the key for a piece of the given color and type standing on square
+     */
+    public static long pieceKey(ChessGame.TeamColor color, ChessPiece.PieceType type, int square) {
+        return pieceKey(ChessBoard.pieceIndex(color, type), square);
+    }
+
+    static long pieceKey(int pieceIndex, int square) {
+        return PIECE_SQUARE[pieceIndex * 64 + square];
+    }
+
+    /**
+     * @return the key mixed in when black is the side to move
+     */
+    public static long sideToMoveKey() {
+        return SIDE_TO_MOVE;
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,164 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.PackedMove;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.random.RandomGenerator;
+
+/**
+ * Finds moves for a computer player or for analysis. An engine keeps its
+ * transposition table between searches, so searching the positions of one
+ * game in turn reuses work from the previous move. Run one search at a time
+ * per engine.
+ * <p>
+ * With more than one thread the engine runs a {@link ParallelSearch}, which
+ * reaches a greater depth in the same time but, since the threads race each
+ * other through the shared table, does not give the same result twice. With
+ * one thread, the default, a search to a fixed depth or node count is
+ * repeatable.
+ * <p>
+ * Given an {@link OpeningBook}, the engine plays a book move whenever the
+ * position is in the book and does not search at all. Which book move is
+ * picked is only repeatable if the book was set with a seeded generator.
+ * <p>
+ * Close an engine once it is no longer needed, to stop its helper threads
+ * and let go of its off-heap table.
+ */
+public class Engine implements AutoCloseable {
+
+    public static final int DEFAULT_HASH_MB = 16;
+
+    private final TranspositionTable table;
+    private final int threads;
+    private final ExecutorService helpers;
+    private OpeningBook book;
+    private RandomGenerator bookRandom;
+    private volatile boolean closed;
+
+    public Engine() {
+        this(DEFAULT_HASH_MB);
+    }
+
+    /**
+     * @param hashMegabytes size of the transposition table, which is kept off the heap
+     */
+    public Engine(int hashMegabytes) {
+        this(hashMegabytes, 1);
+    }
+
+    /**
+     * @param hashMegabytes size of the transposition table, shared by all threads
+     * @param threads       number of threads to search with, including the caller's
+     */
+    public Engine(int hashMegabytes, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("An engine needs at least one thread");
+        }
+        this.table = new TranspositionTable(hashMegabytes);
+        this.threads = threads;
+        this.helpers = threads == 1 ? null : Executors.newFixedThreadPool(threads - 1, task -> {
+            Thread thread = new Thread(task, "chess-search-helper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Plays from the book, picking among its moves differently in every game.
+     *
+     * @param book the book to play from, or null to always search
+     */
+    public void setOpeningBook(OpeningBook book) {
+        setOpeningBook(book, new SplittableRandom());
+    }
+
+    /**
+     * @param book   the book to play from, or null to always search
+     * @param random picks among the book moves; a seeded generator makes the picks repeatable
+     */
+    public void setOpeningBook(OpeningBook book, RandomGenerator random) {
+        this.book = book;
+        this.bookRandom = random;
+    }
+
+    /**
+     * Searches on the calling thread, plus the helper threads if there are
+     * any, until a limit is reached. The game is not changed.
+     */
+    public SearchResult search(ChessGame game, SearchLimits limits) {
+        checkOpen();
+        SearchResult bookMove = probeBook(game);
+        if (bookMove != null) {
+            return bookMove;
+        }
+        table.newSearch();
+        if (threads == 1) {
+            return new Search(game, table, limits).run();
+        }
+        return new ParallelSearch(game, table, limits, threads, helpers).run();
+    }
+
+    /**
+     * Starts a search on a background thread and returns straight away.
+     */
+    public SearchHandle start(ChessGame game, SearchLimits limits) {
+        checkOpen();
+        SearchResult bookMove = probeBook(game);
+        if (bookMove != null) {
+            return new SearchHandle(() -> bookMove, () -> {
+            });
+        }
+        table.newSearch();
+        if (threads == 1) {
+            Search search = new Search(game, table, limits);
+            return new SearchHandle(search::run, search::stop);
+        }
+        ParallelSearch search = new ParallelSearch(game, table, limits, threads, helpers);
+        return new SearchHandle(search::run, search::stop);
+    }
+
+    /**
+     * Forgets everything learned in earlier searches, e.g. before a new game.
+     */
+    public void newGame() {
+        checkOpen();
+        table.clear();
+    }
+
+    /**
+     * Stops the helper threads and releases the transposition table. Stop any
+     * running search first; the engine cannot search again afterwards.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (helpers != null) {
+            helpers.shutdownNow();
+        }
+        table.close();
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Engine is closed");
+        }
+    }
+
+    private SearchResult probeBook(ChessGame game) {
+        if (book == null) {
+            return null;
+        }
+        int move = book.choose(game, bookRandom.nextLong());
+        return move == PackedMove.NONE ? null : new SearchResult(move, 0, 0, 0, 0);
+    }
+}
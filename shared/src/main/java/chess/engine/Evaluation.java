@@ -0,0 +1,170 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+
+/**
+ * Static evaluation in centipawns from the point of view of the side to
+ * move: material and piece-square bonuses, with separate middlegame and
+ * endgame values blended by how much material is left, plus a bishop pair
+ * bonus and a small bonus for having the move.
+ * <p>
+ * {@link #evaluate} scans the whole board. The search keeps the same sums up
+ * to date move by move in an {@link IncrementalEvaluation} instead.
+ */
+public final class Evaluation {
+
+    // indexed by PieceType ordinal: king, queen, bishop, knight, rook, pawn
+    static final int[] PIECE_VALUES = {0, 900, 330, 320, 500, 100};
+    private static final int[] ENDGAME_VALUES = {0, 940, 340, 300, 520, 130};
+    // weight of each piece type in the game phase; the full starting material adds up to MAX_PHASE
+    static final int[] PHASE_WEIGHTS = {0, 4, 1, 1, 2, 0};
+    static final int MAX_PHASE = 24;
+
+    private static final int BISHOP_PAIR = 30;
+    private static final int TEMPO = 10;
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+    private static final int KING = ChessPiece.PieceType.KING.ordinal();
+    private static final int PAWN = ChessPiece.PieceType.PAWN.ordinal();
+
+    // middlegame bonuses, written as seen from white with rank 8 on top
+    private static final int[][] MIDDLEGAME_SQUARES = {
+            { // king
+                    -30, -40, -40, -50, -50, -40, -40, -30,
+                    -30, -40, -40, -50, -50, -40, -40, -30,
+                    -30, -40, -40, -50, -50, -40, -40, -30,
+                    -30, -40, -40, -50, -50, -40, -40, -30,
+                    -20, -30, -30, -40, -40, -30, -30, -20,
+                    -10, -20, -20, -20, -20, -20, -20, -10,
+                    20, 20, 0, 0, 0, 0, 20, 20,
+                    20, 30, 10, 0, 0, 10, 30, 20},
+            { // queen
+                    -20, -10, -10, -5, -5, -10, -10, -20,
+                    -10, 0, 0, 0, 0, 0, 0, -10,
+                    -10, 0, 5, 5, 5, 5, 0, -10,
+                    -5, 0, 5, 5, 5, 5, 0, -5,
+                    0, 0, 5, 5, 5, 5, 0, -5,
+                    -10, 5, 5, 5, 5, 5, 0, -10,
+                    -10, 0, 5, 0, 0, 0, 0, -10,
+                    -20, -10, -10, -5, -5, -10, -10, -20},
+            { // bishop
+                    -20, -10, -10, -10, -10, -10, -10, -20,
+                    -10, 0, 0, 0, 0, 0, 0, -10,
+                    -10, 0, 5, 10, 10, 5, 0, -10,
+                    -10, 5, 5, 10, 10, 5, 5, -10,
+                    -10, 0, 10, 10, 10, 10, 0, -10,
+                    -10, 10, 10, 10, 10, 10, 10, -10,
+                    -10, 5, 0, 0, 0, 0, 5, -10,
+                    -20, -10, -10, -10, -10, -10, -10, -20},
+            { // knight
+                    -50, -40, -30, -30, -30, -30, -40, -50,
+                    -40, -20, 0, 0, 0, 0, -20, -40,
+                    -30, 0, 10, 15, 15, 10, 0, -30,
+                    -30, 5, 15, 20, 20, 15, 5, -30,
+                    -30, 0, 15, 20, 20, 15, 0, -30,
+                    -30, 5, 10, 15, 15, 10, 5, -30,
+                    -40, -20, 0, 5, 5, 0, -20, -40,
+                    -50, -40, -30, -30, -30, -30, -40, -50},
+            { // rook
+                    0, 0, 0, 0, 0, 0, 0, 0,
+                    5, 10, 10, 10, 10, 10, 10, 5,
+                    -5, 0, 0, 0, 0, 0, 0, -5,
+                    -5, 0, 0, 0, 0, 0, 0, -5,
+                    -5, 0, 0, 0, 0, 0, 0, -5,
+                    -5, 0, 0, 0, 0, 0, 0, -5,
+                    -5, 0, 0, 0, 0, 0, 0, -5,
+                    0, 0, 0, 5, 5, 0, 0, 0},
+            { // pawn
+                    0, 0, 0, 0, 0, 0, 0, 0,
+                    50, 50, 50, 50, 50, 50, 50, 50,
+                    10, 10, 20, 30, 30, 20, 10, 10,
+                    5, 5, 10, 25, 25, 10, 5, 5,
+                    0, 0, 0, 20, 20, 0, 0, 0,
+                    5, -5, -10, 0, 0, -10, -5, 5,
+                    5, 10, 10, -20, -20, 10, 10, 5,
+                    0, 0, 0, 0, 0, 0, 0, 0}
+    };
+
+    private static final int[] ENDGAME_KING = {
+            -50, -40, -30, -20, -20, -30, -40, -50,
+            -30, -20, -10, 0, 0, -10, -20, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -30, 0, 0, 0, 0, -30, -30,
+            -50, -30, -30, -30, -30, -30, -30, -50};
+
+    private static final int[] ENDGAME_PAWN = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            90, 90, 90, 90, 90, 90, 90, 90,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            30, 30, 30, 30, 30, 30, 30, 30,
+            15, 15, 15, 15, 15, 15, 15, 15,
+            5, 5, 5, 5, 5, 5, 5, 5,
+            0, 0, 0, 0, 0, 0, 0, 0,
+            0, 0, 0, 0, 0, 0, 0, 0};
+
+    // value plus bonus of each piece index (color * 6 + type) on each square, positive for white
+    static final int[][] MIDDLEGAME = new int[12][64];
+    static final int[][] ENDGAME = new int[12][64];
+
+    static {
+        for (int type = 0; type < TYPES.length; type++) {
+            int[] endgameSquares = type == KING ? ENDGAME_KING : type == PAWN ? ENDGAME_PAWN : MIDDLEGAME_SQUARES[type];
+            for (int square = 0; square < 64; square++) {
+                // the tables have rank 8 on top, so white looks up square ^ 56 and black square
+                MIDDLEGAME[type][square] = PIECE_VALUES[type] + MIDDLEGAME_SQUARES[type][square ^ 56];
+                ENDGAME[type][square] = ENDGAME_VALUES[type] + endgameSquares[square ^ 56];
+                MIDDLEGAME[TYPES.length + type][square] = -(PIECE_VALUES[type] + MIDDLEGAME_SQUARES[type][square]);
+                ENDGAME[TYPES.length + type][square] = -(ENDGAME_VALUES[type] + endgameSquares[square]);
+            }
+        }
+    }
+
+    private Evaluation() {
+    }
+
+    /**
+     * @return the score of the position for the side to move, in centipawns
+     */
+    public static int evaluate(ChessBoard board, ChessGame.TeamColor sideToMove) {
+        int middlegame = 0;
+        int endgame = 0;
+        int phase = 0;
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (ChessPiece.PieceType type : TYPES) {
+                int index = pieceIndex(color, type.ordinal());
+                for (long bits = board.getBitboard(color, type); bits != 0; bits &= bits - 1) {
+                    int square = Long.numberOfTrailingZeros(bits);
+                    middlegame += MIDDLEGAME[index][square];
+                    endgame += ENDGAME[index][square];
+                    phase += PHASE_WEIGHTS[type.ordinal()];
+                }
+            }
+        }
+        return finish(board, middlegame, endgame, phase, sideToMove);
+    }
+
+    /**
+     * Blends the middlegame and endgame sums by phase and adds the terms that
+     * are cheap to work out from the bitboards directly.
+     */
+    static int finish(ChessBoard board, int middlegame, int endgame, int phase, ChessGame.TeamColor sideToMove) {
+        // promotions can push the phase past the starting material
+        phase = Math.min(phase, MAX_PHASE);
+        int white = (middlegame * phase + endgame * (MAX_PHASE - phase)) / MAX_PHASE
+                + bishopPair(board, ChessGame.TeamColor.WHITE) - bishopPair(board, ChessGame.TeamColor.BLACK);
+        return (sideToMove == ChessGame.TeamColor.WHITE ? white : -white) + TEMPO;
+    }
+
+    static int pieceIndex(ChessGame.TeamColor color, int type) {
+        return color.ordinal() * TYPES.length + type;
+    }
+
+    private static int bishopPair(ChessBoard board, ChessGame.TeamColor color) {
+        return Long.bitCount(board.getBitboard(color, ChessPiece.PieceType.BISHOP)) >= 2 ? BISHOP_PAIR : 0;
+    }
+}
@@ -0,0 +1,111 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.PackedMove;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the material and piece-square sums of {@link Evaluation} up to date
+ * as moves are made and taken back, so evaluating a leaf costs a table
+ * lookup per changed square instead of a scan of every piece. The sums of
+ * each earlier position stay on a stack, so taking a move back is a pop.
+ * <p>
+ * Call {@link #makeMove} just before the board makes the move, since it
+ * reads the moving and captured pieces off the board, and {@link #unmakeMove}
+ * alongside the board's unmake.
+ */
+public class IncrementalEvaluation {
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private int[] middlegame = new int[Search.MAX_PLY + 1];
+    private int[] endgame = new int[Search.MAX_PLY + 1];
+    private int[] phase = new int[Search.MAX_PLY + 1];
+    private int top;
+
+    /**
+     * Starts over from the sums of the given board.
+     */
+    public void reset(ChessBoard board) {
+        top = 0;
+        middlegame[0] = 0;
+        endgame[0] = 0;
+        phase[0] = 0;
+        for (int square = 0; square < 64; square++) {
+            ChessPiece piece = board.getPiece(ChessPosition.fromSquare(square));
+            if (piece != null) {
+                add(piece, square);
+            }
+        }
+    }
+
+    /**
+     * Updates the sums for a move that the board is about to make.
+     */
+    public void makeMove(ChessBoard board, int move) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        ChessPiece moving = board.getPiece(ChessPosition.fromSquare(from));
+        ChessPiece captured = board.getPiece(ChessPosition.fromSquare(to));
+
+        if (top + 1 == middlegame.length) {
+            grow();
+        }
+        middlegame[top + 1] = middlegame[top];
+        endgame[top + 1] = endgame[top];
+        phase[top + 1] = phase[top];
+        top++;
+        if (moving == null) {
+            return;
+        }
+        if (captured != null) {
+            remove(captured, to);
+        }
+        remove(moving, from);
+        int promotion = PackedMove.promotion(move);
+        add(promotion < 0 ? moving : ChessPiece.of(moving.getTeamColor(), TYPES[promotion]), to);
+    }
+
+    /**
+     * Goes back to the sums from before the last {@link #makeMove}.
+     */
+    public void unmakeMove() {
+        if (top == 0) {
+            throw new IllegalStateException("No move to unmake");
+        }
+        top--;
+    }
+
+    /**
+     * @return the same score {@link Evaluation#evaluate} would give the board
+     */
+    public int evaluate(ChessBoard board, ChessGame.TeamColor sideToMove) {
+        return Evaluation.finish(board, middlegame[top], endgame[top], phase[top], sideToMove);
+    }
+
+    private void add(ChessPiece piece, int square) {
+        int type = piece.getPieceType().ordinal();
+        int index = Evaluation.pieceIndex(piece.getTeamColor(), type);
+        middlegame[top] += Evaluation.MIDDLEGAME[index][square];
+        endgame[top] += Evaluation.ENDGAME[index][square];
+        phase[top] += Evaluation.PHASE_WEIGHTS[type];
+    }
+
+    private void remove(ChessPiece piece, int square) {
+        int type = piece.getPieceType().ordinal();
+        int index = Evaluation.pieceIndex(piece.getTeamColor(), type);
+        middlegame[top] -= Evaluation.MIDDLEGAME[index][square];
+        endgame[top] -= Evaluation.ENDGAME[index][square];
+        phase[top] -= Evaluation.PHASE_WEIGHTS[type];
+    }
+
+    private void grow() {
+        middlegame = Arrays.copyOf(middlegame, middlegame.length * 2);
+        endgame = Arrays.copyOf(endgame, endgame.length * 2);
+        phase = Arrays.copyOf(phase, phase.length * 2);
+    }
+}
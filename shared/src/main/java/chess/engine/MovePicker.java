@@ -0,0 +1,262 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.MoveGenerator;
+import chess.MoveList;
+import chess.PackedMove;
+import chess.StaticExchange;
+
+/**
+ * Hands out the moves of one node best-first, in stages, generating each
+ * group only when the one before it is used up:
+ * <ol>
+ *  <li>the transposition table move, checked for legality but not generated</li>
+ *  <li>captures and promotions, most valuable victim and least valuable attacker first,
+ *      except that captures losing material by {@link StaticExchange} are held back</li>
+ *  <li>the two killer moves of the ply, quiet moves that caused a cutoff in a sibling node</li>
+ *  <li>the remaining quiet moves, ordered by their history score</li>
+ *  <li>the losing captures</li>
+ * </ol>
+ * Most cutoffs come from the first two stages, so most nodes never generate
+ * their quiet moves at all. The quiescence search drops losing captures
+ * altogether. One picker is reused for every node at its ply.
+ */
+class MovePicker {
+
+    private static final int TT_MOVE = 0;
+    private static final int GENERATE_CAPTURES = 1;
+    private static final int CAPTURES = 2;
+    private static final int KILLERS = 3;
+    private static final int GENERATE_QUIETS = 4;
+    private static final int QUIETS = 5;
+    private static final int BAD_CAPTURES = 6;
+    private static final int DONE = 7;
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private final ChessBoard board;
+    private final int helper;
+    private final MoveList moves = new MoveList();
+    private final MoveList badCaptures = new MoveList();
+    private int[] scores = new int[64];
+    private int index;
+    private int badIndex;
+
+    private ChessGame.TeamColor color;
+    private int stage;
+    private int ttMove;
+    private int[] killers;
+    private int killerIndex;
+    private int[] history;
+    private boolean capturesOnly;
+
+    /**
+     * @param helper 0 for the main search; a helper search's index, which
+     *               shuffles its quiet moves with equal history in its own way
+     */
+    MovePicker(ChessBoard board, int helper) {
+        this.board = board;
+        this.helper = helper;
+    }
+
+    /**
+     * Starts picking for a node of the main search.
+     *
+     * @param ttMove  move from the table, or {@link PackedMove#NONE}
+     * @param killers the killer moves of this ply
+     * @param history history scores of the side to move, indexed by from * 64 + to
+     */
+    void init(ChessGame.TeamColor color, int ttMove, int[] killers, int[] history) {
+        this.color = color;
+        this.ttMove = ttMove == PackedMove.NONE || !MoveGenerator.isLegal(board, color, ttMove)
+                ? PackedMove.NONE : withCaptureFlag(ttMove);
+        this.killers = killers;
+        this.history = history;
+        this.capturesOnly = false;
+        this.stage = TT_MOVE;
+    }
+
+    /**
+     * Starts picking captures and promotions only, for the quiescence search.
+     */
+    void initCaptures(ChessGame.TeamColor color) {
+        this.color = color;
+        this.ttMove = PackedMove.NONE;
+        this.capturesOnly = true;
+        this.stage = GENERATE_CAPTURES;
+    }
+
+    /**
+     * @return the next move to search, or {@link PackedMove#NONE} when there are no more
+     */
+    int next() {
+        while (true) {
+            switch (stage) {
+                case TT_MOVE -> {
+                    stage = GENERATE_CAPTURES;
+                    if (ttMove != PackedMove.NONE) {
+                        return ttMove;
+                    }
+                }
+                case GENERATE_CAPTURES -> {
+                    moves.clear();
+                    badCaptures.clear();
+                    MoveGenerator.generateLegalCaptures(board, color, moves);
+                    scoreCaptures();
+                    index = 0;
+                    stage = CAPTURES;
+                }
+                case CAPTURES -> {
+                    int move = pickBest();
+                    if (move != PackedMove.NONE) {
+                        if (isLosingCapture(move)) {
+                            badCaptures.add(move);
+                            continue;
+                        }
+                        return move;
+                    }
+                    killerIndex = 0;
+                    stage = capturesOnly ? DONE : KILLERS;
+                }
+                case KILLERS -> {
+                    while (killerIndex < killers.length) {
+                        int killer = killers[killerIndex++];
+                        if (isPlayableKiller(killer)) {
+                            return killer;
+                        }
+                    }
+                    stage = GENERATE_QUIETS;
+                }
+                case GENERATE_QUIETS -> {
+                    moves.clear();
+                    MoveGenerator.generateLegalQuiets(board, color, moves);
+                    scoreQuiets();
+                    index = 0;
+                    stage = QUIETS;
+                }
+                case QUIETS -> {
+                    int move = pickBest();
+                    if (move != PackedMove.NONE) {
+                        return move;
+                    }
+                    badIndex = 0;
+                    stage = BAD_CAPTURES;
+                }
+                case BAD_CAPTURES -> {
+                    if (badIndex < badCaptures.size()) {
+                        return badCaptures.get(badIndex++);
+                    }
+                    stage = DONE;
+                }
+                default -> {
+                    return PackedMove.NONE;
+                }
+            }
+        }
+    }
+
+    /**
+     * Selection sort one step at a time: takes the best remaining move of the
+     * current stage, skipping any that an earlier stage already returned. A
+     * cutoff usually comes early, so sorting the whole list would be wasted work.
+     */
+    private int pickBest() {
+        while (index < moves.size()) {
+            int best = index;
+            for (int j = index + 1; j < moves.size(); j++) {
+                if (scores[j] > scores[best]) {
+                    best = j;
+                }
+            }
+            if (best != index) {
+                moves.swap(index, best);
+                int score = scores[index];
+                scores[index] = scores[best];
+                scores[best] = score;
+            }
+            int move = moves.get(index++);
+            if (move != ttMove && (stage != QUIETS || !isKiller(move))) {
+                return move;
+            }
+        }
+        return PackedMove.NONE;
+    }
+
+    private void scoreCaptures() {
+        ensureScoreCapacity();
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int score = 0;
+            if (PackedMove.isCapture(move)) {
+                int victim = pieceTypeAt(color.opponent(), PackedMove.to(move));
+                int attacker = pieceTypeAt(color, PackedMove.from(move));
+                score = Evaluation.PIECE_VALUES[victim] * 8 - Evaluation.PIECE_VALUES[attacker] / 8;
+            }
+            if (PackedMove.isPromotion(move)) {
+                score += Evaluation.PIECE_VALUES[PackedMove.promotion(move)];
+            }
+            scores[i] = score;
+        }
+    }
+
+    private void scoreQuiets() {
+        ensureScoreCapacity();
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            scores[i] = history[PackedMove.from(move) * 64 + PackedMove.to(move)] * 256;
+            if (helper != 0) {
+                scores[i] += (move * 0x9E3779B1 ^ helper * 0x85EBCA6B) >>> 24;
+            }
+        }
+    }
+
+    private boolean isLosingCapture(int move) {
+        if (!PackedMove.isCapture(move) || PackedMove.isPromotion(move)) {
+            return false;
+        }
+        int victim = pieceTypeAt(color.opponent(), PackedMove.to(move));
+        int attacker = pieceTypeAt(color, PackedMove.from(move));
+        // taking a piece worth at least the attacker cannot lose material
+        return Evaluation.PIECE_VALUES[victim] < Evaluation.PIECE_VALUES[attacker]
+                && !StaticExchange.isAtLeast(board, move, 0);
+    }
+
+    private boolean isPlayableKiller(int killer) {
+        // a killer came from a sibling position, so it may not be legal, or may now capture
+        return killer != PackedMove.NONE && killer != ttMove
+                && (board.getOccupancy() & 1L << PackedMove.to(killer)) == 0
+                && MoveGenerator.isLegal(board, color, killer);
+    }
+
+    private boolean isKiller(int move) {
+        for (int killer : killers) {
+            if (move == killer) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int withCaptureFlag(int move) {
+        move &= ~PackedMove.CAPTURE;
+        return (board.getOccupancy(color.opponent()) & 1L << PackedMove.to(move)) != 0 ? move | PackedMove.CAPTURE : move;
+    }
+
+    private int pieceTypeAt(ChessGame.TeamColor color, int square) {
+        long bit = 1L << square;
+        for (ChessPiece.PieceType type : TYPES) {
+            if ((board.getBitboard(color, type) & bit) != 0) {
+                return type.ordinal();
+            }
+        }
+        return ChessPiece.PieceType.KING.ordinal();
+    }
+
+    private void ensureScoreCapacity() {
+        if (scores.length < moves.size()) {
+            scores = new int[moves.size()];
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.InvalidMoveException;
+import chess.MoveGenerator;
+import chess.PackedMove;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A read-only opening book: weighted moves keyed by {@link ChessGame#getZobristKey()}.
+ * The file is memory-mapped, so every JVM on a host that opens the same book
+ * shares one copy in the OS page cache, and a lookup is a binary search
+ * straight over the mapped bytes that allocates nothing on the heap.
+ * <pre>
+ *  int    magic, "CBK1"
+ *  int    number of entries
+ *  then per entry, sorted by key (as a signed long) and then by weight, highest first:
+ *  long   position key
+ *  short  move, a {@link PackedMove} without the capture flag
+ *  short  weight, unsigned
+ * </pre>
+ * All values are big-endian. Build a book with {@link Builder}, or from the
+ * command line with {@code OpeningBook <book file> <games file> [maxPly]},
+ * where each line of the games file is one game in coordinate notation,
+ * e.g. {@code e2e4 e7e5 g1f3}.
+ */
+public final class OpeningBook {
+
+    private static final int MAGIC = 0x43424B31;
+    private static final int HEADER_BYTES = 8;
+    private static final int ENTRY_BYTES = 12;
+
+    /**
+     * A book move and how often it should be chosen relative to the others.
+     */
+    public record Entry(int move, int weight) {
+    }
+
+    private final ByteBuffer entries;
+    private final int count;
+
+    private OpeningBook(ByteBuffer buffer) {
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not an opening book");
+        }
+        this.count = buffer.getInt(4);
+        if (count < 0 || (long) count * ENTRY_BYTES != buffer.capacity() - HEADER_BYTES) {
+            throw new IllegalArgumentException("Corrupt opening book: " + count + " entries in "
+                    + buffer.capacity() + " bytes");
+        }
+        this.entries = buffer.slice(HEADER_BYTES, buffer.capacity() - HEADER_BYTES);
+    }
+
+    /**
+     * Maps a book file into memory. The file must not change while it is open.
+     *
+     * @throws IllegalArgumentException if the file is not a well-formed book
+     */
+    public static OpeningBook open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Opening book is larger than 2 GB: " + file);
+            }
+            // the mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new OpeningBook(buffer);
+        }
+    }
+
+    /**
+     * @return the number of position and move pairs in the book
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Chooses one of the book moves for the position at random, in proportion
+     * to their weights. The move is legal in the game; book moves that are
+     * not, e.g. from a hash collision, are skipped.
+     *
+     * @param random any random number; the same number gives the same move
+     * @return the move, or {@link PackedMove#NONE} if the position is not in the book
+     */
+    public int choose(ChessGame game, long random) {
+        long key = game.getZobristKey();
+        int first = firstIndex(key);
+        long total = 0;
+        for (int i = first; i < count && key(i) == key; i++) {
+            if (isLegal(game, move(i))) {
+                total += weight(i);
+            }
+        }
+        if (total == 0) {
+            return PackedMove.NONE;
+        }
+        long pick = Math.floorMod(random, total);
+        for (int i = first; ; i++) {
+            if (isLegal(game, move(i))) {
+                pick -= weight(i);
+                if (pick < 0) {
+                    return move(i);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return every book move for the position, highest weight first
+     */
+    public List<Entry> entries(ChessGame game) {
+        long key = game.getZobristKey();
+        List<Entry> result = new ArrayList<>();
+        for (int i = firstIndex(key); i < count && key(i) == key; i++) {
+            result.add(new Entry(move(i), weight(i)));
+        }
+        return result;
+    }
+
+    // lower bound: the first entry whose key is not less than key
+    private int firstIndex(long key) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (key(mid) < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private long key(int index) {
+        return entries.getLong(index * ENTRY_BYTES);
+    }
+
+    private int move(int index) {
+        return entries.getShort(index * ENTRY_BYTES + 8) & 0xFFFF;
+    }
+
+    private int weight(int index) {
+        return entries.getShort(index * ENTRY_BYTES + 10) & 0xFFFF;
+    }
+
+    private static boolean isLegal(ChessGame game, int move) {
+        return move != PackedMove.NONE && MoveGenerator.isLegal(game.getBoard(), game.getTeamTurn(), move);
+    }
+
+    /**
+     * Collects position and move pairs, adding up the weight of repeats, and
+     * writes them out in book format.
+     */
+    public static class Builder {
+
+        private static final int MAX_WEIGHT = 0xFFFF;
+
+        private final Map<Long, Map<Integer, Integer>> positions = new HashMap<>();
+
+        /**
+         * Adds weight to a move from the game's current position. Weights
+         * added up past 65535 stay at 65535.
+         *
+         * @param weight 0 to 65535
+         * @throws IllegalArgumentException if the weight is out of range
+         */
+        public Builder add(ChessGame game, int move, int weight) {
+            if (weight < 0 || weight > MAX_WEIGHT) {
+                throw new IllegalArgumentException("Book weight must be 0 to " + MAX_WEIGHT + ": " + weight);
+            }
+            int stored = move & ~PackedMove.CAPTURE;
+            positions.computeIfAbsent(game.getZobristKey(), key -> new HashMap<>())
+                    .merge(stored, weight, (a, b) -> Math.min(MAX_WEIGHT, a + b));
+            return this;
+        }
+
+        /**
+         * Adds every move of a game up to maxPly with weight 1, so moves
+         * played in more games get chosen more often.
+         *
+         * @param moves the game in coordinate notation, e.g. {@code e2e4 e7e5 g1f3}
+         * @throws IllegalArgumentException if a move is malformed or illegal
+         */
+        public Builder addGame(String moves, int maxPly) {
+            ChessGame game = new ChessGame();
+            String[] tokens = moves.trim().split("\\s+");
+            for (int ply = 0; ply < Math.min(maxPly, tokens.length); ply++) {
+                if (tokens[ply].isEmpty()) {
+                    break;
+                }
+                int move = PackedMove.parse(tokens[ply]);
+                if (!isLegal(game, move)) {
+                    throw new IllegalArgumentException("Illegal move " + tokens[ply] + " at ply " + (ply + 1));
+                }
+                add(game, move, 1);
+                try {
+                    game.makeMove(PackedMove.toChessMove(move));
+                } catch (InvalidMoveException e) {
+                    throw new IllegalArgumentException("Illegal move " + tokens[ply] + " at ply " + (ply + 1), e);
+                }
+            }
+            return this;
+        }
+
+        public void write(Path file) throws IOException {
+            List<long[]> sorted = new ArrayList<>();
+            positions.forEach((key, moves) -> moves.forEach((move, weight) ->
+                    sorted.add(new long[]{key, move, weight})));
+            sorted.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(b[2], a[2]));
+
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + sorted.size() * ENTRY_BYTES)
+                    .order(ByteOrder.BIG_ENDIAN);
+            buffer.putInt(MAGIC).putInt(sorted.size());
+            for (long[] entry : sorted) {
+                buffer.putLong(entry[0]).putShort((short) entry[1]).putShort((short) entry[2]);
+            }
+            Files.write(file, buffer.array());
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: OpeningBook <book file> <games file> [maxPly]");
+            System.exit(2);
+        }
+        int maxPly = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+        Builder builder = new Builder();
+        int games = 0;
+        try (BufferedReader reader = Files.newBufferedReader(Path.of(args[1]))) {
+            String line;
+            int number = 0;
+            while ((line = reader.readLine()) != null) {
+                number++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    builder.addGame(line, maxPly);
+                    games++;
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Skipping line " + number + ": " + e.getMessage());
+                }
+            }
+        }
+        builder.write(Path.of(args[0]));
+        OpeningBook book = open(Path.of(args[0]));
+        System.out.println("Wrote " + book.size() + " entries from " + games + " games to " + args[0]);
+    }
+}
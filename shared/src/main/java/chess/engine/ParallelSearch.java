@@ -0,0 +1,57 @@
+package chess.engine;
+
+import chess.ChessGame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Lazy SMP: the main search runs on the calling thread with the real limits
+ * while helper searches of the same root run on the pool, all reading and
+ * writing one {@link TranspositionTable}. The helpers never report back
+ * during the search; what they add is table entries that let the main search
+ * cut off sooner, so it gets deeper in the same time. When the main search
+ * stops, the helpers are stopped too, and the result comes from whichever
+ * thread completed the deepest iteration, preferring the main one.
+ */
+class ParallelSearch {
+
+    private final Search main;
+    private final List<Search> helpers = new ArrayList<>();
+    private final Executor pool;
+
+    ParallelSearch(ChessGame game, TranspositionTable table, SearchLimits limits, int threads, Executor pool) {
+        this.main = new Search(game, table, limits);
+        for (int i = 1; i < threads; i++) {
+            helpers.add(new Search(game, table, limits, i));
+        }
+        this.pool = pool;
+    }
+
+    SearchResult run() {
+        long start = System.nanoTime();
+        List<CompletableFuture<SearchResult>> running = new ArrayList<>(helpers.size());
+        for (Search helper : helpers) {
+            running.add(CompletableFuture.supplyAsync(helper::run, pool));
+        }
+        SearchResult best = main.run();
+        helpers.forEach(Search::stop);
+
+        long nodes = main.nodes();
+        for (CompletableFuture<SearchResult> future : running) {
+            SearchResult result = future.join();
+            nodes += result.nodes();
+            if (result.depth() > best.depth()) {
+                best = result;
+            }
+        }
+        return new SearchResult(best.move(), best.score(), best.depth(), nodes, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    void stop() {
+        main.stop();
+        helpers.forEach(Search::stop);
+    }
+}
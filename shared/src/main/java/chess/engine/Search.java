@@ -0,0 +1,362 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.MoveGenerator;
+import chess.MoveList;
+import chess.PackedMove;
+import chess.Zobrist;
+
+/**
+ * One alpha-beta search of one position. Iterative deepening searches depth
+ * 1, 2, 3... until a {@link SearchLimits} limit is hit, so the best move of
+ * the last completed iteration is always at hand, and each iteration is
+ * ordered by the transposition table entries the previous one left behind.
+ * Leaves are resolved with a quiescence search over captures so the static
+ * evaluation is never taken in the middle of an exchange.
+ * <p>
+ * Moves come from a {@link MovePicker} per ply, which tries the table move,
+ * captures, killer moves and then quiet moves by history score. The search
+ * plays on its own copy of the board with make/unmake and reuses the pickers,
+ * so it does not allocate per node.
+ * <p>
+ * A helper search is one of the extra threads of a {@link ParallelSearch}. It
+ * has no node or time limit and runs until it is stopped; odd helpers start
+ * one ply deeper, and every helper breaks ties between quiet moves in its own
+ * order, so the threads spread over different parts of the tree and share
+ * what they find through the table.
+ */
+public class Search {
+
+    public static final int MAX_PLY = 64;
+    public static final int MATE = 30000;
+    static final int INFINITY = 32000;
+
+    private static final int CHECK_INTERVAL = 1024;
+    private static final int[] NO_KILLERS = {};
+    // history scores are halved when one reaches this, so recent cutoffs count for more
+    private static final int HISTORY_LIMIT = 1 << 20;
+
+    private final ChessBoard board;
+    private final ChessGame.TeamColor rootColor;
+    private final TranspositionTable table;
+    private final SearchLimits limits;
+    private final int helper;
+
+    private final MovePicker[] pickers = new MovePicker[MAX_PLY];
+    private final int[][] killers = new int[MAX_PLY][2];
+    // indexed by color, then from * 64 + to
+    private final int[][] history = new int[2][64 * 64];
+    // position keys from the last irreversible game move through the current search ply
+    private final long[] keys;
+    private final int[] fiftyClock = new int[MAX_PLY + 1];
+    private final IncrementalEvaluation evaluation = new IncrementalEvaluation();
+    private final int rootIndex;
+
+    private volatile boolean stopRequested;
+    private boolean aborted;
+    private long deadline;
+    private long nodes;
+    private int rootDepth;
+    private int rootBest;
+
+    /**
+     * @param game   the position to search; it is copied, not changed
+     * @param table  transposition table to read and fill
+     * @param limits when to stop
+     */
+    public Search(ChessGame game, TranspositionTable table, SearchLimits limits) {
+        this(game, table, limits, 0);
+    }
+
+    /**
+     * @param helper 0 for the main search, or the index of a helper thread
+     */
+    Search(ChessGame game, TranspositionTable table, SearchLimits limits, int helper) {
+        this.board = game.getBoard().cloneBoard();
+        this.rootColor = game.getTeamTurn();
+        this.table = table;
+        this.limits = helper == 0 ? limits : SearchLimits.depth(limits.depth());
+        this.helper = helper;
+        for (int i = 0; i < MAX_PLY; i++) {
+            pickers[i] = new MovePicker(board, helper);
+        }
+        long[] history = game.getPositionHistory();
+        this.keys = new long[history.length + MAX_PLY + 1];
+        System.arraycopy(history, 0, keys, 0, history.length);
+        this.rootIndex = history.length - 1;
+        this.fiftyClock[0] = game.getHalfmoveClock();
+        this.evaluation.reset(board);
+    }
+
+    /**
+     * Asks a running search to stop. It returns the result of its last
+     * completed iteration as soon as it next checks its limits.
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    /**
+     * Runs the search to its limits. Call once per Search.
+     */
+    public SearchResult run() {
+        long start = System.nanoTime();
+        deadline = limits.millis() > 0 ? start + limits.millis() * 1_000_000 : Long.MAX_VALUE;
+        int maxDepth = limits.depth() > 0 ? Math.min(limits.depth(), MAX_PLY - 1) : MAX_PLY - 1;
+
+        MoveList rootMoves = new MoveList();
+        MoveGenerator.generateLegal(board, rootColor, rootMoves);
+        if (rootMoves.isEmpty()) {
+            int score = board.isInCheck(rootColor) ? -MATE : 0;
+            return new SearchResult(PackedMove.NONE, score, 0, 0, elapsedMillis(start));
+        }
+
+        int bestMove = rootMoves.get(0);
+        int bestScore = 0;
+        int completedDepth = 0;
+        for (rootDepth = 1 + (helper & 1); rootDepth <= maxDepth; rootDepth++) {
+            rootBest = PackedMove.NONE;
+            int score = search(rootDepth, 0, -INFINITY, INFINITY, rootColor);
+            if (aborted) {
+                break;
+            }
+            bestMove = rootBest;
+            bestScore = score;
+            completedDepth = rootDepth;
+
+            if (Math.abs(score) > MATE - MAX_PLY && MATE - Math.abs(score) <= rootDepth) {
+                // a shorter mate cannot turn up deeper
+                break;
+            }
+            // the next iteration would take several times as long as this one, so do not start it
+            if (limits.millis() > 0 && System.nanoTime() - start > (deadline - start) / 2) {
+                break;
+            }
+            if (rootMoves.size() == 1 && limits.depth() == 0 && helper == 0) {
+                break;
+            }
+        }
+        return new SearchResult(bestMove, bestScore, completedDepth, nodes, elapsedMillis(start));
+    }
+
+    private int search(int depth, int ply, int alpha, int beta, ChessGame.TeamColor color) {
+        if (shouldStop()) {
+            return 0;
+        }
+        nodes++;
+        long key = keys[rootIndex + ply];
+        if (ply > 0 && isDraw(ply)) {
+            return 0;
+        }
+
+        boolean inCheck = board.isInCheck(color);
+        if (inCheck) {
+            depth++;
+        }
+        if (depth <= 0) {
+            return quiesce(ply, alpha, beta, color);
+        }
+        if (ply >= MAX_PLY - 1) {
+            return evaluation.evaluate(board, color);
+        }
+
+        long entry = table.probe(key);
+        int ttMove = TranspositionTable.move(entry);
+        if (ply > 0 && TranspositionTable.bound(entry) != 0 && TranspositionTable.depth(entry) >= depth) {
+            int score = fromTable(TranspositionTable.score(entry), ply);
+            int bound = TranspositionTable.bound(entry);
+            if (bound == TranspositionTable.EXACT
+                    || (bound == TranspositionTable.LOWER && score >= beta)
+                    || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                return score;
+            }
+        }
+
+        MovePicker picker = pickers[ply];
+        picker.init(color, ttMove, killers[ply], history[color.ordinal()]);
+
+        int originalAlpha = alpha;
+        int bestScore = -INFINITY;
+        int bestMove = PackedMove.NONE;
+        int searched = 0;
+        for (int move = picker.next(); move != PackedMove.NONE; move = picker.next()) {
+            makeMove(move, ply, color);
+            int score;
+            if (searched++ == 0) {
+                score = -search(depth - 1, ply + 1, -beta, -alpha, color.opponent());
+            } else {
+                // principal variation search: prove the move is no better with a null window first
+                score = -search(depth - 1, ply + 1, -alpha - 1, -alpha, color.opponent());
+                if (score > alpha && score < beta) {
+                    score = -search(depth - 1, ply + 1, -beta, -alpha, color.opponent());
+                }
+            }
+            unmakeMove();
+            if (aborted) {
+                return 0;
+            }
+
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    if (ply == 0) {
+                        rootBest = move;
+                    }
+                    if (score >= beta) {
+                        if (!PackedMove.isCapture(move) && !PackedMove.isPromotion(move)) {
+                            rememberCutoff(move, ply, depth, color);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+        if (searched == 0) {
+            return inCheck ? -MATE + ply : 0;
+        }
+
+        int bound = bestScore >= beta ? TranspositionTable.LOWER
+                : bestScore > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        table.store(key, bestMove, toTable(bestScore, ply), depth, bound);
+        return bestScore;
+    }
+
+    /**
+     * Searches captures and promotions only, until the position is quiet. The
+     * side to move may also "stand pat" on the static evaluation instead of
+     * capturing, except in check, where every evasion is searched.
+     */
+    private int quiesce(int ply, int alpha, int beta, ChessGame.TeamColor color) {
+        if (shouldStop()) {
+            return 0;
+        }
+        nodes++;
+        if (ply >= MAX_PLY - 1) {
+            return evaluation.evaluate(board, color);
+        }
+
+        boolean inCheck = board.isInCheck(color);
+        int bestScore = -INFINITY;
+        if (!inCheck) {
+            bestScore = evaluation.evaluate(board, color);
+            if (bestScore >= beta) {
+                return bestScore;
+            }
+            alpha = Math.max(alpha, bestScore);
+        }
+
+        MovePicker picker = pickers[ply];
+        if (inCheck) {
+            picker.init(color, PackedMove.NONE, NO_KILLERS, history[color.ordinal()]);
+        } else {
+            picker.initCaptures(color);
+        }
+        for (int move = picker.next(); move != PackedMove.NONE; move = picker.next()) {
+            makeMove(move, ply, color);
+            int score = -quiesce(ply + 1, -beta, -alpha, color.opponent());
+            unmakeMove();
+            if (aborted) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (score >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        if (inCheck && bestScore == -INFINITY) {
+            return -MATE + ply;
+        }
+        return bestScore;
+    }
+
+    /**
+     * A quiet move that refuted this node is likely to refute its siblings
+     * too, so it becomes a killer for the ply and gains history for the side.
+     */
+    private void rememberCutoff(int move, int ply, int depth, ChessGame.TeamColor color) {
+        int[] plyKillers = killers[ply];
+        if (plyKillers[0] != move) {
+            plyKillers[1] = plyKillers[0];
+            plyKillers[0] = move;
+        }
+        int[] scores = history[color.ordinal()];
+        int index = PackedMove.from(move) * 64 + PackedMove.to(move);
+        scores[index] += depth * depth;
+        if (scores[index] >= HISTORY_LIMIT) {
+            for (int i = 0; i < scores.length; i++) {
+                scores[i] /= 2;
+            }
+        }
+    }
+
+    long nodes() {
+        return nodes;
+    }
+
+    private void makeMove(int move, int ply, ChessGame.TeamColor color) {
+        boolean pawn = (board.getBitboard(color, ChessPiece.PieceType.PAWN) & 1L << PackedMove.from(move)) != 0;
+        evaluation.makeMove(board, move);
+        board.makeMove(move);
+        fiftyClock[ply + 1] = pawn || PackedMove.isCapture(move) ? 0 : fiftyClock[ply] + 1;
+        long key = board.getZobristKey();
+        keys[rootIndex + ply + 1] = color == ChessGame.TeamColor.WHITE ? key ^ Zobrist.sideToMoveKey() : key;
+    }
+
+    private void unmakeMove() {
+        board.unmakeMove();
+        evaluation.unmakeMove();
+    }
+
+    /**
+     * @return true for the fifty move rule or for any earlier occurrence of
+     * the position, since a position that can be repeated once can be
+     * repeated again
+     */
+    private boolean isDraw(int ply) {
+        if (fiftyClock[ply] >= 100) {
+            return true;
+        }
+        int index = rootIndex + ply;
+        int oldest = Math.max(0, index - fiftyClock[ply]);
+        for (int i = index - 4; i >= oldest; i -= 2) {
+            if (keys[i] == keys[index]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean shouldStop() {
+        if (aborted) {
+            return true;
+        }
+        // the main search always completes depth 1 so there is a move to return
+        if ((rootDepth > 1 || helper != 0) && (nodes & (CHECK_INTERVAL - 1)) == 0
+                && (stopRequested || (limits.nodes() > 0 && nodes >= limits.nodes()) || System.nanoTime() > deadline)) {
+            aborted = true;
+        }
+        return aborted;
+    }
+
+    // mate scores are stored relative to the position, not the root, so they stay right in a transposition
+    private static int toTable(int score, int ply) {
+        return score > MATE - MAX_PLY ? score + ply : score < -MATE + MAX_PLY ? score - ply : score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        return score > MATE - MAX_PLY ? score - ply : score < -MATE + MAX_PLY ? score + ply : score;
+    }
+
+    private static long elapsedMillis(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
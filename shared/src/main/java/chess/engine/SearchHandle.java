@@ -0,0 +1,56 @@
+package chess.engine;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * A search running on its own thread. {@link #cancel()} stops it early; the
+ * result is then the best move of the last iteration it completed.
+ */
+public final class SearchHandle {
+
+    private final Runnable stop;
+    private final CompletableFuture<SearchResult> result = new CompletableFuture<>();
+
+    /**
+     * @param search runs the search to its end
+     * @param stop   asks the running search to stop
+     */
+    SearchHandle(Supplier<SearchResult> search, Runnable stop) {
+        this.stop = stop;
+        Thread thread = new Thread(() -> {
+            try {
+                result.complete(search.get());
+            } catch (RuntimeException | Error e) {
+                result.completeExceptionally(e);
+            }
+        }, "chess-search");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Asks the search to stop. Safe to call at any time and more than once.
+     */
+    public void cancel() {
+        stop.run();
+    }
+
+    public boolean isDone() {
+        return result.isDone();
+    }
+
+    /**
+     * Waits for the search to finish.
+     */
+    public SearchResult get() {
+        return result.join();
+    }
+
+    /**
+     * @return a future completed with the result, for callers that do not want to block
+     */
+    public CompletableFuture<SearchResult> future() {
+        return result;
+    }
+}
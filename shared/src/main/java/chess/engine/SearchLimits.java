@@ -0,0 +1,27 @@
+package chess.engine;
+
+/**
+ * When a search should stop. The search ends at whichever limit it reaches
+ * first; a limit of 0 means no limit of that kind. A search always finishes
+ * depth 1, so it has a legal move to return even under a tiny limit.
+ *
+ * @param depth  deepest iteration to search, in plies
+ * @param nodes  nodes to visit before stopping
+ * @param millis wall-clock time to search for
+ */
+public record SearchLimits(int depth, long nodes, long millis) {
+
+    public static final SearchLimits INFINITE = new SearchLimits(0, 0, 0);
+
+    public static SearchLimits depth(int depth) {
+        return new SearchLimits(depth, 0, 0);
+    }
+
+    public static SearchLimits nodes(long nodes) {
+        return new SearchLimits(0, nodes, 0);
+    }
+
+    public static SearchLimits millis(long millis) {
+        return new SearchLimits(0, 0, millis);
+    }
+}
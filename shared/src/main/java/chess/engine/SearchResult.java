@@ -0,0 +1,51 @@
+package chess.engine;
+
+import chess.ChessMove;
+import chess.PackedMove;
+
+/**
+ * The outcome of a search: the best move found in the last completed
+ * iteration and its score from the point of view of the side to move.
+ *
+ * @param move   the best move as a {@link PackedMove}, or {@link PackedMove#NONE}
+ *               if the side to move has no legal move
+ * @param score  in centipawns, or within {@link Search#MAX_PLY} of
+ *               &plusmn;{@link Search#MATE} for a forced mate
+ * @param depth  the deepest completed iteration, or 0 for a move from the opening book
+ * @param nodes  positions visited, including quiescence
+ * @param millis wall-clock time taken
+ */
+public record SearchResult(int move, int score, int depth, long nodes, long millis) {
+
+    /**
+     * @return the best move, or null if there is none
+     */
+    public ChessMove bestMove() {
+        return move == PackedMove.NONE ? null : PackedMove.toChessMove(move);
+    }
+
+    /**
+     * @return true if the score is a forced mate for either side
+     */
+    public boolean isMate() {
+        return Math.abs(score) > Search.MATE - Search.MAX_PLY;
+    }
+
+    /**
+     * @return the number of moves to the mate, positive when the side to move
+     * mates and negative when it is mated, or 0 if the score is not a mate
+     */
+    public int mateIn() {
+        if (!isMate()) {
+            return 0;
+        }
+        int plies = Search.MATE - Math.abs(score);
+        return score > 0 ? (plies + 1) / 2 : -(plies / 2);
+    }
+
+    @Override
+    public String toString() {
+        return "depth " + depth + " score " + (isMate() ? "mate " + mateIn() : "cp " + score)
+                + " nodes " + nodes + " time " + millis + " move " + PackedMove.toString(move);
+    }
+}
@@ -0,0 +1,207 @@
+package chess.engine;
+
+import chess.PackedMove;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Remembers the result of searching a position so that a transposition, or
+ * the same position in the next iteration, can reuse it.
+ * <p>
+ * The table lives off the Java heap in direct buffers, so even a table of
+ * several gigabytes adds nothing for the garbage collector to trace or copy.
+ * Raise {@code -XX:MaxDirectMemorySize} for tables larger than the heap.
+ * Direct buffers are only freed once the garbage collector finds them
+ * unreachable, so {@link #close()} hands a table's buffers on to the next
+ * table of the same size instead, and the direct memory in use never grows
+ * past the most tables ever open at once.
+ * Memory is split into 32-byte buckets of two 16-byte entries. The first
+ * entry keeps the deepest search of the current search generation, the
+ * second is always replaced, so deep results survive a flood of shallow
+ * ones and recent shallow results still get stored. Each entry is the key
+ * XORed with the data word, then the data word:
+ * <pre>
+ *  bits  0-15  best move, a {@link PackedMove}
+ *  bits 16-31  score
+ *  bits 32-39  depth searched
+ *  bits 40-41  bound: {@link #EXACT}, {@link #LOWER} or {@link #UPPER}
+ *  bits 42-47  search generation
+ * </pre>
+ * Every search thread of a parallel search shares one table without locking.
+ * The two words of an entry are written one after the other, the same way
+ * {@link chess.perft.PerftHashTable} does. A probe that races a store, and
+ * so sees the data of one write and the check word of another, gets a check
+ * word that no longer XORs back to its key and treats the entry as empty. A
+ * lost or stale entry only costs search time.
+ */
+public class TranspositionTable {
+
+    public static final int EXACT = 1;
+    /** The score is at least the stored value (the search failed high). */
+    public static final int LOWER = 2;
+    /** The score is at most the stored value (no move raised alpha). */
+    public static final int UPPER = 3;
+
+    private static final int BUCKET_BYTES = 32;
+    private static final int ENTRY_BYTES = 16;
+    // 1 GB per buffer, well inside the int indexing of a ByteBuffer
+    private static final int CHUNK_BITS = 25;
+    private static final int GENERATIONS = 64;
+
+    // buffers of closed tables by capacity, handed out before allocating more
+    private static final Map<Integer, ArrayDeque<ByteBuffer>> RELEASED = new HashMap<>();
+
+    private final ByteBuffer[] chunks;
+    private final long mask;
+    private int generation;
+
+    /**
+     * @param megabytes memory to use, rounded down to a power-of-two number of buckets
+     */
+    public TranspositionTable(int megabytes) {
+        long bucketCount = Long.highestOneBit(Math.max(1, (long) megabytes * 1024 * 1024 / BUCKET_BYTES));
+        int chunkBuckets = (int) Math.min(bucketCount, 1L << CHUNK_BITS);
+        this.chunks = new ByteBuffer[(int) (bucketCount / chunkBuckets)];
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i] = allocate(chunkBuckets * BUCKET_BYTES);
+        }
+        this.mask = bucketCount - 1;
+    }
+
+    /**
+     * @return the data word stored for the key, or 0 if there is none
+     */
+    public long probe(long key) {
+        long bucket = key & mask;
+        ByteBuffer chunk = chunks[(int) (bucket >>> CHUNK_BITS)];
+        int offset = (int) (bucket & (1L << CHUNK_BITS) - 1) * BUCKET_BYTES;
+        for (int entry = offset; entry < offset + BUCKET_BYTES; entry += ENTRY_BYTES) {
+            long data = chunk.getLong(entry + 8);
+            if ((chunk.getLong(entry) ^ data) == key) {
+                return data;
+            }
+        }
+        return 0;
+    }
+
+    public void store(long key, int move, int score, int depth, int bound) {
+        long bucket = key & mask;
+        ByteBuffer chunk = chunks[(int) (bucket >>> CHUNK_BITS)];
+        int offset = (int) (bucket & (1L << CHUNK_BITS) - 1) * BUCKET_BYTES;
+
+        long deepest = chunk.getLong(offset + 8);
+        boolean deepestMatches = (chunk.getLong(offset) ^ deepest) == key;
+        long recent = chunk.getLong(offset + ENTRY_BYTES + 8);
+        boolean recentMatches = (chunk.getLong(offset + ENTRY_BYTES) ^ recent) == key;
+
+        int entry;
+        long old;
+        if (deepestMatches || generation(deepest) != generation || depth >= depth(deepest)) {
+            entry = offset;
+            old = deepestMatches ? deepest : 0;
+        } else {
+            entry = offset + ENTRY_BYTES;
+            old = recentMatches ? recent : 0;
+        }
+        if (move == PackedMove.NONE && old != 0) {
+            // keep the move from an earlier search of this position for ordering
+            move = move(old);
+        }
+        long data = pack(move, score, depth, bound, generation);
+        chunk.putLong(entry + 8, data);
+        chunk.putLong(entry, key ^ data);
+    }
+
+    /**
+     * Marks entries stored so far as belonging to an earlier search, so that
+     * deep results from a previous move give way to the new search.
+     */
+    public void newSearch() {
+        generation = (generation + 1) % GENERATIONS;
+    }
+
+    /**
+     * Empties the table. Not safe while a search is using it.
+     */
+    public void clear() {
+        for (ByteBuffer chunk : chunks) {
+            clear(chunk);
+        }
+    }
+
+    /**
+     * Gives the table's buffers to the next table of the same size, which
+     * clears them before use. Direct memory is not returned to the operating
+     * system, but a new engine reuses it rather than allocating its own
+     * while the old buffers wait for the garbage collector. The table must
+     * not be used again, and no search may still be running on it.
+     */
+    public void close() {
+        synchronized (RELEASED) {
+            for (int i = 0; i < chunks.length; i++) {
+                if (chunks[i] != null) {
+                    RELEASED.computeIfAbsent(chunks[i].capacity(), capacity -> new ArrayDeque<>()).push(chunks[i]);
+                    chunks[i] = null;
+                }
+            }
+        }
+    }
+
+    private static ByteBuffer allocate(int bytes) {
+        ByteBuffer chunk;
+        synchronized (RELEASED) {
+            ArrayDeque<ByteBuffer> released = RELEASED.get(bytes);
+            chunk = released == null ? null : released.poll();
+        }
+        if (chunk == null) {
+            return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+        }
+        clear(chunk);
+        return chunk;
+    }
+
+    private static void clear(ByteBuffer chunk) {
+        for (int i = 0; i < chunk.capacity(); i += 8) {
+            chunk.putLong(i, 0);
+        }
+    }
+
+    /**
+     * @return the off-heap memory used by the table, in bytes
+     */
+    public long sizeInBytes() {
+        return (mask + 1) * BUCKET_BYTES;
+    }
+
+    static long pack(int move, int score, int depth, int bound, int generation) {
+        return (move & 0xFFFFL) | (score & 0xFFFFL) << 16 | (long) depth << 32 | (long) bound << 40
+                | (long) generation << 42;
+    }
+
+    public static int move(long data) {
+        return (int) (data & 0xFFFF);
+    }
+
+    public static int score(long data) {
+        return (short) (data >>> 16);
+    }
+
+    public static int depth(long data) {
+        return (int) (data >>> 32) & 0xFF;
+    }
+
+    /**
+     * @return the bound, or 0 for an empty entry
+     */
+    public static int bound(long data) {
+        return (int) (data >>> 40) & 3;
+    }
+
+    static int generation(long data) {
+        return (int) (data >>> 42) & (GENERATIONS - 1);
+    }
+}
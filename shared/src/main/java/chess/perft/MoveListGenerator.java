@@ -0,0 +1,58 @@
+package chess.perft;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.MoveGenerator;
+import chess.MoveList;
+
+import java.util.Collection;
+
+/**
+ * Counts with {@link MoveGenerator#generateLegal} into one reusable
+ * {@link MoveList} per ply and make/unmake on a single board copy, so the
+ * walk allocates nothing per node. The last ply is bulk counted from the
+ * size of the move list instead of being played out.
+ */
+public class MoveListGenerator implements PerftGenerator {
+
+    @Override
+    public String name() {
+        return "movelist";
+    }
+
+    @Override
+    public Collection<ChessMove> legalMoves(ChessGame game) {
+        MoveList moves = new MoveList();
+        MoveGenerator.generateLegal(game.getBoard(), game.getTeamTurn(), moves);
+        return moves.toChessMoves();
+    }
+
+    @Override
+    public long count(ChessGame game, int depth) {
+        MoveList[] lists = new MoveList[Math.max(depth, 1)];
+        for (int i = 0; i < lists.length; i++) {
+            lists[i] = new MoveList();
+        }
+        return count(game.getBoard().cloneBoard(), game.getTeamTurn(), depth, lists);
+    }
+
+    static long count(ChessBoard board, ChessGame.TeamColor color, int depth, MoveList[] lists) {
+        if (depth == 0) {
+            return 1;
+        }
+        MoveList moves = lists[depth - 1];
+        moves.clear();
+        MoveGenerator.generateLegal(board, color, moves);
+        if (depth == 1) {
+            return moves.size();
+        }
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            board.makeMove(moves.get(i));
+            nodes += count(board, color.opponent(), depth - 1, lists);
+            board.unmakeMove();
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,121 @@
+package chess.perft;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.MoveGenerator;
+import chess.MoveList;
+import chess.Zobrist;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Perft split across a {@link ForkJoinPool}. Every move above the split depth
+ * becomes its own task with its own board copy, so tasks share nothing but the
+ * optional {@link PerftHashTable}. Subtrees at or below the split depth are
+ * counted sequentially with make/unmake, the same way {@link MoveListGenerator}
+ * does, since forking tiny subtrees costs more than it saves.
+ */
+public class ParallelPerft implements PerftGenerator {
+
+    private final ForkJoinPool pool;
+    private final int splitDepth;
+    private final PerftHashTable table;
+
+    /**
+     * @param pool       pool to run the tasks in
+     * @param splitDepth remaining depth at which a subtree stops being split into tasks
+     * @param table      shared count cache, or null to count every node
+     */
+    public ParallelPerft(ForkJoinPool pool, int splitDepth, PerftHashTable table) {
+        this.pool = pool;
+        this.splitDepth = Math.max(1, splitDepth);
+        this.table = table;
+    }
+
+    public ParallelPerft() {
+        this(ForkJoinPool.commonPool(), 3, null);
+    }
+
+    @Override
+    public String name() {
+        return "parallel";
+    }
+
+    @Override
+    public Collection<ChessMove> legalMoves(ChessGame game) {
+        return Perft.MOVE_LIST.legalMoves(game);
+    }
+
+    @Override
+    public long count(ChessGame game, int depth) {
+        return pool.invoke(new PerftTask(game.getBoard().cloneBoard(), game.getTeamTurn(), depth));
+    }
+
+    private class PerftTask extends RecursiveTask<Long> {
+        private final ChessBoard board;
+        private final ChessGame.TeamColor color;
+        private final int depth;
+
+        PerftTask(ChessBoard board, ChessGame.TeamColor color, int depth) {
+            this.board = board;
+            this.color = color;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            if (depth <= splitDepth) {
+                MoveList[] lists = new MoveList[Math.max(depth, 1)];
+                for (int i = 0; i < lists.length; i++) {
+                    lists[i] = new MoveList();
+                }
+                return table == null
+                        ? MoveListGenerator.count(board, color, depth, lists)
+                        : countHashed(board, color, depth, lists);
+            }
+
+            MoveList moves = new MoveList();
+            MoveGenerator.generateLegal(board, color, moves);
+            List<PerftTask> children = new ArrayList<>(moves.size());
+            for (int i = 0; i < moves.size(); i++) {
+                ChessBoard child = board.cloneBoard();
+                child.makeMove(moves.get(i));
+                children.add(new PerftTask(child, color.opponent(), depth - 1));
+            }
+            long nodes = 0;
+            for (PerftTask child : invokeAll(children)) {
+                nodes += child.join();
+            }
+            return nodes;
+        }
+    }
+
+    private long countHashed(ChessBoard board, ChessGame.TeamColor color, int depth, MoveList[] lists) {
+        // depth 1 is a bulk count, cheaper than a probe
+        if (depth <= 1) {
+            return MoveListGenerator.count(board, color, depth, lists);
+        }
+        long key = color == ChessGame.TeamColor.BLACK ? board.getZobristKey() ^ Zobrist.sideToMoveKey() : board.getZobristKey();
+        long cached = table.probe(key, depth);
+        if (cached >= 0) {
+            return cached;
+        }
+
+        MoveList moves = lists[depth - 1];
+        moves.clear();
+        MoveGenerator.generateLegal(board, color, moves);
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            board.makeMove(moves.get(i));
+            nodes += countHashed(board, color.opponent(), depth - 1, lists);
+            board.unmakeMove();
+        }
+        table.store(key, depth, nodes);
+        return nodes;
+    }
+}
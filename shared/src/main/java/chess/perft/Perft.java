@@ -0,0 +1,189 @@
+package chess.perft;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.Fen;
+import chess.PackedMove;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Perft: counts every leaf of the legal move tree to a fixed depth. The counts
+ * for standard positions are known, so a wrong number means a move generator
+ * bug, and the time taken is a direct measure of generator speed.
+ * <p>
+ * This engine has no castling or en passant, so the reference counts in
+ * {@link #SUITE} are the published ones with those moves taken out, and are
+ * only kept for positions and depths where the two cannot differ or where the
+ * counts have been checked against {@link PieceMovesGenerator}.
+ * <p>
+ * Usage: {@code Perft [--generator=movelist|parallel|validmoves|piecemoves] [--divide] <depth> [fen]}
+ * or {@code Perft [--generator=...] --suite [maxDepth]}. The parallel generator also takes
+ * {@code --threads=N}, {@code --split=D} (remaining depth below which subtrees are not
+ * split into tasks) and {@code --hash=MB} (size of a shared perft hash table).
+ */
+public final class Perft {
+
+    public static final PerftGenerator PIECE_MOVES = new PieceMovesGenerator();
+    public static final PerftGenerator VALID_MOVES = new ValidMovesGenerator();
+    public static final PerftGenerator MOVE_LIST = new MoveListGenerator();
+    public static final PerftGenerator PARALLEL = new ParallelPerft();
+
+    public static final List<PerftGenerator> GENERATORS = List.of(MOVE_LIST, PARALLEL, VALID_MOVES, PIECE_MOVES);
+
+    /**
+     * A reference position; {@code nodes[d - 1]} is the leaf count at depth d.
+     */
+    public record Position(String name, String fen, long... nodes) {
+        public int maxDepth() {
+            return nodes.length;
+        }
+    }
+
+    /**
+     * Nodes counted and the wall-clock time it took.
+     */
+    public record Result(long nodes, long nanos) {
+        public long nodesPerSecond() {
+            return nanos == 0 ? 0 : nodes * 1_000_000_000L / nanos;
+        }
+    }
+
+    public static final List<Position> SUITE = List.of(
+            new Position("start", Fen.START_POSITION,
+                    20, 400, 8902, 197281, 4865351),
+            new Position("position 3", "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                    14, 191, 2810, 43087, 671300),
+            new Position("position 4", "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w - - 0 1",
+                    6, 258, 9217, 404404),
+            new Position("position 5", "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w - - 1 8",
+                    43, 1452, 59922)
+    );
+
+    private Perft() {
+    }
+
+    /**
+     * @return the leaf count and elapsed time for one perft run
+     */
+    public static Result run(PerftGenerator generator, ChessGame game, int depth) {
+        long start = System.nanoTime();
+        long nodes = generator.count(game, depth);
+        return new Result(nodes, System.nanoTime() - start);
+    }
+
+    /**
+     * Splits a perft count by root move, which is how a wrong total is narrowed
+     * down to the move whose subtree differs between two generators.
+     *
+     * @return leaf count below each root move, keyed by move in "e2e4" form
+     */
+    public static Map<String, Long> divide(PerftGenerator generator, ChessGame game, int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Divide needs a depth of at least 1");
+        }
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (ChessMove move : generator.legalMoves(game)) {
+            ChessGame child = new ChessGame();
+            child.setBoard(game.getBoard().cloneBoard());
+            child.getBoard().movePiece(move);
+            child.setTeamTurn(game.getTeamTurn().opponent());
+            counts.put(PackedMove.toString(PackedMove.fromChessMove(move)), generator.count(child, depth - 1));
+        }
+        return counts;
+    }
+
+    public static PerftGenerator generator(String name) {
+        for (PerftGenerator generator : GENERATORS) {
+            if (generator.name().equalsIgnoreCase(name)) {
+                return generator;
+            }
+        }
+        throw new IllegalArgumentException("Unknown generator: " + name);
+    }
+
+    public static void main(String[] args) {
+        PerftGenerator generator = MOVE_LIST;
+        boolean divide = false;
+        boolean suite = false;
+        int depth = -1;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int split = 3;
+        int hashMegabytes = 0;
+        StringBuilder fen = new StringBuilder();
+
+        for (String arg : args) {
+            if (arg.startsWith("--generator=")) {
+                generator = generator(arg.substring("--generator=".length()));
+            } else if (arg.startsWith("--threads=")) {
+                threads = Integer.parseInt(arg.substring("--threads=".length()));
+            } else if (arg.startsWith("--split=")) {
+                split = Integer.parseInt(arg.substring("--split=".length()));
+            } else if (arg.startsWith("--hash=")) {
+                hashMegabytes = Integer.parseInt(arg.substring("--hash=".length()));
+            } else if (arg.equals("--divide")) {
+                divide = true;
+            } else if (arg.equals("--suite")) {
+                suite = true;
+            } else if (depth < 0 && arg.matches("\\d+")) {
+                depth = Integer.parseInt(arg);
+            } else {
+                fen.append(fen.isEmpty() ? "" : " ").append(arg);
+            }
+        }
+
+        if (generator == PARALLEL) {
+            generator = new ParallelPerft(new ForkJoinPool(threads), split,
+                    hashMegabytes > 0 ? new PerftHashTable(hashMegabytes) : null);
+        }
+
+        if (suite) {
+            boolean passed = runSuite(generator, depth < 0 ? Integer.MAX_VALUE : depth);
+            System.exit(passed ? 0 : 1);
+        }
+        if (depth < 0) {
+            System.out.println("Usage: Perft [--generator=movelist|parallel|validmoves|piecemoves] [--divide] <depth> [fen]");
+            System.out.println("       Perft [--generator=...] --suite [maxDepth]");
+            System.out.println("       parallel options: --threads=N --split=D --hash=MB");
+            System.exit(2);
+        }
+
+        ChessGame game = Fen.parse(fen.isEmpty() ? Fen.START_POSITION : fen.toString());
+        if (divide) {
+            long start = System.nanoTime();
+            long total = 0;
+            for (var entry : divide(generator, game, depth).entrySet()) {
+                System.out.println(entry.getKey() + ": " + entry.getValue());
+                total += entry.getValue();
+            }
+            System.out.println();
+            report(generator, depth, new Result(total, System.nanoTime() - start));
+        } else {
+            report(generator, depth, run(generator, game, depth));
+        }
+    }
+
+    private static boolean runSuite(PerftGenerator generator, int maxDepth) {
+        boolean passed = true;
+        for (Position position : SUITE) {
+            ChessGame game = Fen.parse(position.fen());
+            for (int depth = 1; depth <= Math.min(maxDepth, position.maxDepth()); depth++) {
+                Result result = run(generator, game, depth);
+                long expected = position.nodes()[depth - 1];
+                boolean ok = result.nodes() == expected;
+                passed &= ok;
+                System.out.printf("%-12s depth %d  %12d  %s  %,d nps%n", position.name(), depth, result.nodes(),
+                        ok ? "ok" : "FAIL expected " + expected, result.nodesPerSecond());
+            }
+        }
+        return passed;
+    }
+
+    private static void report(PerftGenerator generator, int depth, Result result) {
+        System.out.printf("%s depth %d: %d nodes in %.3f s (%,d nps)%n", generator.name(), depth, result.nodes(),
+                result.nanos() / 1e9, result.nodesPerSecond());
+    }
+}
@@ -0,0 +1,32 @@
+package chess.perft;
+
+import chess.ChessGame;
+import chess.ChessMove;
+
+import java.util.Collection;
+
+/**
+ * A move generator that perft can count with. Each implementation walks the
+ * tree its own way, so a new generator can be checked for correctness by
+ * comparing its counts against another one and measured on the same positions.
+ */
+public interface PerftGenerator {
+
+    /**
+     * @return a short name used in reports
+     */
+    String name();
+
+    /**
+     * @return every legal move for the team whose turn it is
+     */
+    Collection<ChessMove> legalMoves(ChessGame game);
+
+    /**
+     * Counts the leaf nodes of the legal move tree. The game is left unchanged.
+     *
+     * @param depth number of plies to search, 0 counts the position itself
+     * @return number of positions reached at exactly that depth
+     */
+    long count(ChessGame game, int depth);
+}
@@ -0,0 +1,52 @@
+package chess.perft;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Caches subtree leaf counts by position key and depth so transpositions are
+ * only counted once. Safe to share between threads without locking: each slot
+ * holds the data word and the key XORed with it, written separately. A reader
+ * that sees half of one write and half of another gets a check word that no
+ * longer XORs back to its key, and treats the slot as a miss.
+ * <p>
+ * Slots are always replaced, so the table never needs clearing to stay correct.
+ */
+public class PerftHashTable {
+
+    private static final int DEPTH_BITS = 8;
+    private static final long DEPTH_MASK = (1L << DEPTH_BITS) - 1;
+
+    // two longs per slot: key ^ data, then data
+    private final AtomicLongArray slots;
+    private final int mask;
+
+    /**
+     * @param megabytes memory to use, rounded down to a power-of-two number of slots
+     */
+    public PerftHashTable(int megabytes) {
+        long slotCount = Math.max(1, (long) megabytes * 1024 * 1024 / 16);
+        int size = Integer.highestOneBit((int) Math.min(slotCount, 1 << 29));
+        this.slots = new AtomicLongArray(2 * size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * @return the stored leaf count for the position at that depth, or -1 if it is not cached
+     */
+    public long probe(long key, int depth) {
+        int index = 2 * ((int) key & mask);
+        long data = slots.get(index + 1);
+        long check = slots.get(index);
+        if ((check ^ data) != key || (data & DEPTH_MASK) != depth) {
+            return -1;
+        }
+        return data >>> DEPTH_BITS;
+    }
+
+    public void store(long key, int depth, long nodes) {
+        int index = 2 * ((int) key & mask);
+        long data = nodes << DEPTH_BITS | depth;
+        slots.set(index + 1, data);
+        slots.set(index, key ^ data);
+    }
+}
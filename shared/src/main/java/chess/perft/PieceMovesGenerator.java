@@ -0,0 +1,72 @@
+package chess.perft;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * Generates moves the slow, obvious way: {@link ChessPiece#pieceMoves} for
+ * every piece, then throw out any move that leaves the king attacked on a
+ * copied board. It shares no pin or check logic with the legal generator, so
+ * it serves as the reference the faster generators are checked against.
+ */
+public class PieceMovesGenerator implements PerftGenerator {
+
+    @Override
+    public String name() {
+        return "piecemoves";
+    }
+
+    @Override
+    public Collection<ChessMove> legalMoves(ChessGame game) {
+        return legalMoves(game.getBoard(), game.getTeamTurn());
+    }
+
+    @Override
+    public long count(ChessGame game, int depth) {
+        return count(game.getBoard(), game.getTeamTurn(), depth);
+    }
+
+    private static long count(ChessBoard board, ChessGame.TeamColor color, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        Collection<ChessMove> moves = legalMoves(board, color);
+        if (depth == 1) {
+            return moves.size();
+        }
+        long nodes = 0;
+        for (ChessMove move : moves) {
+            ChessBoard copy = board.cloneBoard();
+            copy.movePiece(move);
+            nodes += count(copy, color.opponent(), depth - 1);
+        }
+        return nodes;
+    }
+
+    private static Collection<ChessMove> legalMoves(ChessBoard board, ChessGame.TeamColor color) {
+        Collection<ChessMove> legal = new ArrayList<>();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPosition position = ChessPosition.of(row, col);
+                ChessPiece piece = board.getPiece(position);
+                if (piece == null || piece.getTeamColor() != color) {
+                    continue;
+                }
+                for (ChessMove move : piece.pieceMoves(board, position)) {
+                    ChessBoard copy = board.cloneBoard();
+                    copy.movePiece(move);
+                    if (!copy.isInCheck(color)) {
+                        legal.add(move);
+                    }
+                }
+            }
+        }
+        return legal;
+    }
+}
@@ -0,0 +1,67 @@
+package chess.perft;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * Walks the tree through the public game API the server and client use:
+ * {@link ChessGame#validMoves(ChessPosition)} for every piece of the side to
+ * move and {@link ChessGame#makeMove} on a copied game. This is what a request
+ * to the server actually costs, including the status update after each move.
+ */
+public class ValidMovesGenerator implements PerftGenerator {
+
+    @Override
+    public String name() {
+        return "validmoves";
+    }
+
+    @Override
+    public Collection<ChessMove> legalMoves(ChessGame game) {
+        Collection<ChessMove> moves = new ArrayList<>();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPosition position = ChessPosition.of(row, col);
+                ChessPiece piece = game.getBoard().getPiece(position);
+                if (piece != null && piece.getTeamColor() == game.getTeamTurn()) {
+                    moves.addAll(game.validMoves(position));
+                }
+            }
+        }
+        return moves;
+    }
+
+    @Override
+    public long count(ChessGame game, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        Collection<ChessMove> moves = legalMoves(game);
+        if (depth == 1) {
+            return moves.size();
+        }
+        long nodes = 0;
+        for (ChessMove move : moves) {
+            nodes += count(play(game, move), depth - 1);
+        }
+        return nodes;
+    }
+
+    private static ChessGame play(ChessGame game, ChessMove move) {
+        ChessGame copy = new ChessGame();
+        copy.setBoard(game.getBoard().cloneBoard());
+        copy.setTeamTurn(game.getTeamTurn());
+        try {
+            copy.makeMove(move);
+        } catch (InvalidMoveException e) {
+            throw new IllegalStateException("validMoves returned a move makeMove rejected: " + move, e);
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,21 @@
+package serialization;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * The one Gson instance the client and server share. Gson is thread safe and
+ * caches the adapter for every type it has seen, so building a new Gson per
+ * request throws that cache away each time. The chess model classes and
+ * ServerMessage carry their own streaming adapters, which this instance
+ * picks up like any other.
+ */
+public final class Serializer {
+
+    public static final Gson GSON = new GsonBuilder()
+            .disableHtmlEscaping()
+            .create();
+
+    private Serializer() {
+    }
+}
@@ -1,7 +1,16 @@
 package websocket.messages;
 
 import chess.ChessGame;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 
+import java.io.IOException;
 import java.util.Objects;
 
 /**
@@ -10,6 +19,7 @@ import java.util.Objects;
  * Note: You can add to this class, but you should not alter the existing
  * methods.
  */
+@JsonAdapter(ServerMessage.AdapterFactory.class)
 public class ServerMessage {
     ServerMessageType serverMessageType;
 
@@ -74,4 +84,76 @@ public class ServerMessage {
     public int hashCode() {
         return Objects.hash(getServerMessageType());
     }
+
+    /**
+     * Builds the streaming adapter with whatever adapter the Gson in use has
+     * for the game, so LOAD_GAME messages get the compact game encoding.
+     */
+    static class AdapterFactory implements TypeAdapterFactory {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+            if (type.getRawType() != ServerMessage.class) {
+                return null;
+            }
+            return (TypeAdapter<T>) new Adapter(gson.getAdapter(ChessGame.class));
+        }
+    }
+
+    private static class Adapter extends TypeAdapter<ServerMessage> {
+        private final TypeAdapter<ChessGame> games;
+
+        Adapter(TypeAdapter<ChessGame> games) {
+            this.games = games;
+        }
+
+        @Override
+        public void write(JsonWriter out, ServerMessage msg) throws IOException {
+            if (msg == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            if (msg.serverMessageType != null) {
+                out.name("serverMessageType").value(msg.serverMessageType.name());
+            }
+            if (msg.game != null) {
+                out.name("game");
+                games.write(out, msg.game);
+            }
+            if (msg.errorMessage != null) {
+                out.name("errorMessage").value(msg.errorMessage);
+            }
+            if (msg.message != null) {
+                out.name("message").value(msg.message);
+            }
+            out.endObject();
+        }
+
+        @Override
+        public ServerMessage read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            var msg = new ServerMessage(null);
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+                switch (name) {
+                    case "serverMessageType" -> msg.serverMessageType = ServerMessageType.valueOf(in.nextString());
+                    case "game" -> msg.game = games.read(in);
+                    case "errorMessage" -> msg.errorMessage = in.nextString();
+                    case "message" -> msg.message = in.nextString();
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return msg;
+        }
+    }
 }
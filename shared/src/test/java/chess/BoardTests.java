@@ -0,0 +1,69 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class BoardTests {
+
+    @Test
+    @DisplayName("Positions off the board are rejected, not wrapped onto another square")
+    public void offBoard() {
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> board.getPiece(ChessPosition.of(0, 5)));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> board.getPiece(ChessPosition.of(3, 9)));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> board.addPiece(ChessPosition.of(9, 1),
+                ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN)));
+
+        ChessGame game = new ChessGame();
+        // row 3 column 13 would otherwise wrap onto e4, a legal pawn push
+        Assertions.assertThrows(InvalidMoveException.class, () -> game.makeMove(
+                new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(3, 13), null)));
+        Assertions.assertThrows(InvalidMoveException.class, () -> game.makeMove(
+                new ChessMove(ChessPosition.of(2, 9), ChessPosition.of(4, 5), null)));
+        Assertions.assertEquals(new ChessGame(), game);
+    }
+
+    @Test
+    @DisplayName("Unmaking every move of a small tree restores the board")
+    public void makeUnmakeRestores() {
+        // captures on d5, a8 and h1, and promotions with and without a capture for both sides
+        ChessBoard board = ChessBoard.fromFen("r3k2r/1P6/8/3p4/4P3/8/6p1/R3K2R w KQkq - 0 1");
+        int[] seen = new int[2];
+        walk(board, ChessGame.TeamColor.WHITE, 3, seen);
+        Assertions.assertTrue(seen[0] > 0, "no captures made");
+        Assertions.assertTrue(seen[1] > 0, "no promotions made");
+        Assertions.assertEquals(ChessBoard.fromFen("r3k2r/1P6/8/3p4/4P3/8/6p1/R3K2R w KQkq - 0 1"), board);
+        Assertions.assertThrows(IllegalStateException.class, board::unmakeMove);
+    }
+
+    // seen counts the captures and promotions made
+    private static void walk(ChessBoard board, ChessGame.TeamColor color, int depth, int[] seen) {
+        if (depth == 0) {
+            return;
+        }
+        MoveList moves = new MoveList();
+        MoveGenerator.generateLegal(board, color, moves);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            ChessBoard before = board.cloneBoard();
+            String fen = board.toFen();
+            long key = board.getZobristKey();
+            long white = board.getOccupancy(ChessGame.TeamColor.WHITE);
+            long black = board.getOccupancy(ChessGame.TeamColor.BLACK);
+
+            board.makeMove(move);
+            seen[0] += PackedMove.isCapture(move) ? 1 : 0;
+            seen[1] += PackedMove.isPromotion(move) ? 1 : 0;
+            walk(board, color.opponent(), depth - 1, seen);
+            board.unmakeMove();
+
+            Assertions.assertEquals(before, board, PackedMove.toString(move));
+            Assertions.assertEquals(fen, board.toFen(), PackedMove.toString(move));
+            Assertions.assertEquals(key, board.getZobristKey(), PackedMove.toString(move));
+            Assertions.assertEquals(white, board.getOccupancy(ChessGame.TeamColor.WHITE));
+            Assertions.assertEquals(black, board.getOccupancy(ChessGame.TeamColor.BLACK));
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import serialization.Serializer;
+
+public class DrawTests {
+
+    private static final ChessMove WHITE_OUT = new ChessMove(ChessPosition.of(1, 7), ChessPosition.of(3, 6), null);
+    private static final ChessMove BLACK_OUT = new ChessMove(ChessPosition.of(8, 7), ChessPosition.of(6, 6), null);
+    private static final ChessMove WHITE_BACK = new ChessMove(ChessPosition.of(3, 6), ChessPosition.of(1, 7), null);
+    private static final ChessMove BLACK_BACK = new ChessMove(ChessPosition.of(6, 6), ChessPosition.of(8, 7), null);
+
+    private static void shuffle(ChessGame game) throws InvalidMoveException {
+        game.makeMove(WHITE_OUT);
+        game.makeMove(BLACK_OUT);
+        game.makeMove(WHITE_BACK);
+        game.makeMove(BLACK_BACK);
+    }
+
+    @Test
+    @DisplayName("Third occurrence of a position is a draw")
+    public void threefoldRepetition() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        shuffle(game);
+        Assertions.assertEquals(ChessGame.GameStatus.NORMAL, game.getGameStatus());
+        game.makeMove(WHITE_OUT);
+        game.makeMove(BLACK_OUT);
+        game.makeMove(WHITE_BACK);
+        Assertions.assertFalse(game.isThreefoldRepetition());
+        game.makeMove(BLACK_BACK);
+
+        Assertions.assertTrue(game.isThreefoldRepetition());
+        Assertions.assertEquals(ChessGame.GameStatus.REPETITION, game.getGameStatus());
+        Assertions.assertThrows(InvalidMoveException.class, () -> game.makeMove(WHITE_OUT));
+    }
+
+    @Test
+    @DisplayName("Pawn moves clear the repetition history")
+    public void irreversibleMoveResetsHistory() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        shuffle(game);
+        game.makeMove(new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+        Assertions.assertEquals(1, game.getPositionHistory().length);
+        Assertions.assertEquals(0, game.getHalfmoveClock());
+    }
+
+    @Test
+    @DisplayName("Repetition history survives storage")
+    public void historyIsSaved() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        shuffle(game);
+        game.makeMove(WHITE_OUT);
+        game.makeMove(BLACK_OUT);
+        game.makeMove(WHITE_BACK);
+
+        for (ChessGame copy : new ChessGame[]{
+                GameCodec.decode(GameCodec.encode(game)),
+                Serializer.GSON.fromJson(Serializer.GSON.toJson(game), ChessGame.class)}) {
+            Assertions.assertArrayEquals(game.getPositionHistory(), copy.getPositionHistory());
+            copy.makeMove(BLACK_BACK);
+            Assertions.assertEquals(ChessGame.GameStatus.REPETITION, copy.getGameStatus());
+        }
+    }
+
+    @Test
+    @DisplayName("Fifty moves without progress is a draw")
+    public void fiftyMoveRule() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/8/R3K3 w - - 99 80");
+        Assertions.assertFalse(game.isFiftyMoveRule());
+        game.makeMove(new ChessMove(ChessPosition.of(1, 1), ChessPosition.of(2, 1), null));
+        Assertions.assertTrue(game.isFiftyMoveRule());
+        Assertions.assertEquals(ChessGame.GameStatus.FIFTY_MOVE, game.getGameStatus());
+    }
+
+    @Test
+    @DisplayName("Checkmate beats the fifty move rule")
+    public void mateOnFiftiethMove() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 99 80");
+        game.makeMove(new ChessMove(ChessPosition.of(1, 1), ChessPosition.of(8, 1), null));
+        Assertions.assertEquals(ChessGame.GameStatus.CHECKMATE, game.getGameStatus());
+    }
+}
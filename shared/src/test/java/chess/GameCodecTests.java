@@ -0,0 +1,77 @@
+package chess;
+
+import com.google.gson.Gson;
+import serialization.Serializer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class GameCodecTests {
+
+    @Test
+    @DisplayName("Round trip keeps every field")
+    public void roundTrip() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("4k3/1P6/8/8/8/8/6p1/4K2R w K - 3 40");
+        game.makeMove(new ChessMove(ChessPosition.of(7, 2), ChessPosition.of(8, 2), ChessPiece.PieceType.KNIGHT));
+        game.makeMove(new ChessMove(ChessPosition.of(8, 5), ChessPosition.of(7, 5), null));
+        game.makeMove(new ChessMove(ChessPosition.of(1, 8), ChessPosition.of(1, 7), null));
+        game.setGameOver(true);
+        game.setWinner("white player");
+
+        ChessGame copy = GameCodec.decode(GameCodec.encode(game));
+        Assertions.assertEquals(game, copy);
+        Assertions.assertEquals(game.toFen(), copy.toFen());
+        Assertions.assertEquals(game.getMoveHistory(), copy.getMoveHistory());
+        Assertions.assertEquals(game.getGameStatus(), copy.getGameStatus());
+        Assertions.assertTrue(copy.isGameOver());
+        Assertions.assertEquals("white player", copy.getWinner());
+    }
+
+    @Test
+    @DisplayName("Encoding is much smaller than JSON")
+    public void compact() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+        byte[] bytes = GameCodec.encode(game);
+        // under 40 bytes of board, state and moves, then the key history: e2e4 reset it to
+        // the one current position, a one-byte count and one 8-byte key
+        Assertions.assertEquals(1, game.getPositionHistory().length);
+        Assertions.assertTrue(bytes.length < 40 + 1 + 8, "encoded size " + bytes.length);
+        Assertions.assertTrue(bytes.length * 10 < legacyJson(game).length());
+        Assertions.assertTrue(bytes.length < Serializer.GSON.toJson(game).length());
+    }
+
+    /**
+     * The reflective JSON that games were stored as before the codec: the
+     * board as an 8x8 array of pieces, the turn and the move log.
+     */
+    private static String legacyJson(ChessGame game) {
+        ChessPiece[][] squares = new ChessPiece[8][8];
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                squares[row - 1][col - 1] = game.getBoard().getPiece(ChessPosition.of(row, col));
+            }
+        }
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("board", Map.of("board", squares));
+        fields.put("turn", game.getTeamTurn());
+        fields.put("gameLog", game.getMoveHistory());
+        fields.put("gameOver", game.isGameOver());
+        return new Gson().toJson(fields);
+    }
+
+    @Test
+    @DisplayName("Unknown versions and truncated data are rejected")
+    public void rejectsBadData() {
+        byte[] bytes = GameCodec.encode(new ChessGame());
+        bytes[0] = 99;
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(bytes));
+
+        byte[] good = GameCodec.encode(new ChessGame());
+        byte[] truncated = java.util.Arrays.copyOf(good, good.length - 3);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(truncated));
+    }
+}
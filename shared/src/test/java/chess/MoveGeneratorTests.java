@@ -0,0 +1,117 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+
+public class MoveGeneratorTests {
+
+    private static Set<String> legal(String fen) {
+        ChessGame game = ChessGame.fromFen(fen);
+        return legal(game.getBoard(), game.getTeamTurn());
+    }
+
+    private static Set<String> legal(ChessBoard board, ChessGame.TeamColor color) {
+        MoveList moves = new MoveList();
+        MoveGenerator.generateLegal(board, color, moves);
+        return names(moves);
+    }
+
+    // pseudo-legal moves that do not leave the king attacked, sharing no pin or check logic
+    private static Set<String> filtered(ChessBoard board, ChessGame.TeamColor color) {
+        MoveList pseudo = new MoveList();
+        MoveGenerator.generatePseudoLegal(board, color, pseudo);
+        MoveList moves = new MoveList();
+        for (int i = 0; i < pseudo.size(); i++) {
+            board.makeMove(pseudo.get(i));
+            if (!board.isInCheck(color)) {
+                moves.add(pseudo.get(i));
+            }
+            board.unmakeMove();
+        }
+        return names(moves);
+    }
+
+    private static Set<String> names(MoveList moves) {
+        Set<String> names = new TreeSet<>();
+        for (int i = 0; i < moves.size(); i++) {
+            Assertions.assertTrue(names.add(PackedMove.toString(moves.get(i))), "duplicate move");
+        }
+        return names;
+    }
+
+    @Test
+    @DisplayName("Pinned pieces only move along the pin")
+    public void pins() {
+        // the e8 rook pins the e4 rook to its king
+        Assertions.assertEquals(Set.of("e4e2", "e4e3", "e4e5", "e4e6", "e4e7", "e4e8"),
+                from(legal("4r2k/8/8/8/4R3/8/8/4K3 w - - 0 1"), "e4"));
+        // the a5 bishop pins whatever stands on d2
+        Assertions.assertEquals(Set.of(), from(legal("4k3/8/8/b7/8/8/3N4/4K3 w - - 0 1"), "d2"));
+        Assertions.assertEquals(Set.of("d2c3", "d2b4", "d2a5"),
+                from(legal("4k3/8/8/b7/8/8/3B4/4K3 w - - 0 1"), "d2"));
+        Assertions.assertEquals(Set.of(), from(legal("4k3/8/8/b7/8/8/3P4/4K3 w - - 0 1"), "d2"));
+    }
+
+    @Test
+    @DisplayName("In check, only captures of the checker, blocks and king moves are legal")
+    public void checkEvasions() {
+        // the e8 rook checks along the e-file: take it with the bishop, block with the knight, or step aside
+        Assertions.assertEquals(Set.of("a4e8", "c3e2", "c3e4", "e1d1", "e1d2", "e1f1", "e1f2"),
+                legal("k3r3/8/8/8/B7/2N5/8/4K2R w - - 0 1"));
+        // a knight check cannot be blocked, and f2 is covered by the knight
+        Assertions.assertEquals(Set.of("e2d3", "e1d1", "e1d2", "e1f1"),
+                legal("4k3/8/8/8/8/3n4/4B3/4K3 w - - 0 1"));
+    }
+
+    @Test
+    @DisplayName("In double check, only the king may move")
+    public void doubleCheck() {
+        // the e8 rook and the b4 bishop both check; the d1 knight could block either one alone
+        Assertions.assertEquals(Set.of("e1f1", "e1f2"), legal("k3r3/8/8/8/1b6/8/8/3NK3 w - - 0 1"));
+    }
+
+    @Test
+    @DisplayName("Matches make and unmake filtering over random games")
+    public void randomGames() {
+        SplittableRandom random = new SplittableRandom(240);
+        String[] starts = {
+                Fen.START_POSITION,
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1"
+        };
+        int positions = 0;
+        for (int game = 0; game < 200; game++) {
+            ChessGame start = ChessGame.fromFen(starts[game % starts.length]);
+            ChessBoard board = start.getBoard();
+            ChessGame.TeamColor color = start.getTeamTurn();
+            for (int ply = 0; ply < 100; ply++) {
+                Assertions.assertEquals(filtered(board, color), legal(board, color), board.toFen());
+                positions++;
+                MoveList moves = new MoveList();
+                MoveGenerator.generateLegal(board, color, moves);
+                if (moves.isEmpty()) {
+                    break;
+                }
+                board.makeMove(moves.get(random.nextInt(moves.size())));
+                color = color.opponent();
+            }
+        }
+        Assertions.assertTrue(positions > 10_000, "only " + positions + " positions");
+    }
+
+    private static Set<String> from(Set<String> moves, String from) {
+        Set<String> result = new TreeSet<>();
+        for (String move : moves) {
+            if (move.startsWith(from)) {
+                result.add(move);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,79 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class PackedMoveTests {
+
+    @Test
+    @DisplayName("Every field round trips")
+    public void fields() {
+        for (int from = 0; from < 64; from++) {
+            for (int to = 0; to < 64; to++) {
+                for (int promotion = -1; promotion < ChessPiece.PieceType.values().length; promotion++) {
+                    for (int flags : new int[]{0, PackedMove.CAPTURE}) {
+                        int move = PackedMove.of(from, to, promotion, flags);
+                        Assertions.assertEquals(from, PackedMove.from(move));
+                        Assertions.assertEquals(to, PackedMove.to(move));
+                        Assertions.assertEquals(promotion, PackedMove.promotion(move));
+                        Assertions.assertEquals(promotion >= 0, PackedMove.isPromotion(move));
+                        Assertions.assertEquals(flags != 0, PackedMove.isCapture(move));
+                        Assertions.assertEquals(move & 0xFFFF, move, "fits in a short");
+                    }
+                }
+            }
+        }
+        Assertions.assertEquals(PackedMove.of(0, 0), PackedMove.NONE);
+        Assertions.assertFalse(PackedMove.isCapture(PackedMove.NONE));
+        Assertions.assertFalse(PackedMove.isPromotion(PackedMove.NONE));
+    }
+
+    @Test
+    @DisplayName("ChessMove conversion round trips")
+    public void chessMoves() {
+        ChessMove push = new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null);
+        ChessMove promotion = new ChessMove(ChessPosition.of(7, 1), ChessPosition.of(8, 2), ChessPiece.PieceType.KNIGHT);
+        for (ChessMove move : List.of(push, promotion)) {
+            Assertions.assertEquals(move, PackedMove.toChessMove(PackedMove.fromChessMove(move)));
+        }
+        Assertions.assertEquals(PackedMove.of(12, 28), PackedMove.fromChessMove(push));
+        Assertions.assertEquals("a7b8n", PackedMove.toString(PackedMove.fromChessMove(promotion)));
+        Assertions.assertEquals(PackedMove.fromChessMove(promotion), PackedMove.parse("a7b8n"));
+        // the capture flag is dropped on the way to a ChessMove
+        Assertions.assertEquals(push, PackedMove.toChessMove(PackedMove.fromChessMove(push) | PackedMove.CAPTURE));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> PackedMove.parse("e2e9"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> PackedMove.parse("a7a8x"));
+    }
+
+    @Test
+    @DisplayName("Move list grows, swaps and finds moves")
+    public void moveList() {
+        MoveList list = new MoveList(1);
+        Assertions.assertTrue(list.isEmpty());
+        for (int i = 1; i <= 100; i++) {
+            list.add(PackedMove.of(i % 64, (i * 7) % 64, -1, i % 2 == 0 ? PackedMove.CAPTURE : 0));
+        }
+        Assertions.assertEquals(100, list.size());
+        for (int i = 1; i <= 100; i++) {
+            Assertions.assertEquals(PackedMove.of(i % 64, (i * 7) % 64, -1, i % 2 == 0 ? PackedMove.CAPTURE : 0),
+                    list.get(i - 1));
+        }
+
+        int first = list.get(0);
+        int last = list.get(99);
+        list.swap(0, 99);
+        Assertions.assertEquals(last, list.get(0));
+        Assertions.assertEquals(first, list.get(99));
+
+        Assertions.assertTrue(list.contains(first));
+        Assertions.assertFalse(list.contains(PackedMove.of(63, 0)));
+        Assertions.assertEquals(100, list.toChessMoves().size());
+
+        list.clear();
+        Assertions.assertTrue(list.isEmpty());
+        Assertions.assertFalse(list.contains(first));
+    }
+}
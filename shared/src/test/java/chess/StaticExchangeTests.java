@@ -0,0 +1,102 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class StaticExchangeTests {
+
+    private static int see(String fen, String move) {
+        return StaticExchange.evaluate(ChessBoard.fromFen(fen.split(" ")[0]), PackedMove.parse(move));
+    }
+
+    @Test
+    @DisplayName("Capturing a defended piece with a cheaper one wins the difference")
+    public void winningCapture() {
+        Assertions.assertEquals(220, see("4k3/8/3p4/4n3/3P4/8/8/4K3 w - - 0 1", "d4e5"));
+        Assertions.assertEquals(320, see("4k3/8/8/4n3/3P4/8/8/4K3 w - - 0 1", "d4e5"));
+    }
+
+    @Test
+    @DisplayName("Capturing a defended pawn with a rook loses the rook")
+    public void losingCapture() {
+        Assertions.assertEquals(-400, see("4k3/8/2p5/3p4/8/8/3R4/4K3 w - - 0 1", "d2d5"));
+    }
+
+    @Test
+    @DisplayName("Sliders behind an attacker join the exchange")
+    public void xRays() {
+        // two rooks against two: the exchange costs white the rook
+        Assertions.assertEquals(-400, see("3r2k1/3r4/8/3p4/8/8/3R4/3RK3 w - - 0 1", "d2d5"));
+        // two rooks against one: white keeps the pawn
+        Assertions.assertEquals(100, see("6k1/3r4/8/3p4/8/8/3R4/3RK3 w - - 0 1", "d2d5"));
+        // a queen behind a bishop
+        Assertions.assertEquals(100, see("6k1/8/4n3/3p4/2B5/1Q6/8/4K3 w - - 0 1", "c4d5"));
+    }
+
+    @Test
+    @DisplayName("A king cannot recapture onto a defended square")
+    public void kingRecapture() {
+        Assertions.assertEquals(-400, see("8/8/4k3/3p4/8/8/8/3RK3 w - - 0 1", "d1d5"));
+        // the bishop covers d5, so the king has to leave the rook alone
+        Assertions.assertEquals(100, see("8/8/4k3/3p4/8/1B6/8/3RK3 w - - 0 1", "d1d5"));
+    }
+
+    @Test
+    @DisplayName("The threshold test agrees with the exact exchange value")
+    public void thresholdMatchesValue() {
+        for (String fen : new String[]{
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w - - 0 1",
+                "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w - - 0 1"}) {
+            ChessGame game = ChessGame.fromFen(fen);
+            checkThresholds(game.getBoard().cloneBoard(), game.getTeamTurn(), 2);
+        }
+    }
+
+    private static void checkThresholds(ChessBoard board, ChessGame.TeamColor color, int depth) {
+        MoveList moves = new MoveList();
+        MoveGenerator.generateLegal(board, color, moves);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (PackedMove.isCapture(move)) {
+                int value = StaticExchange.evaluate(board, move);
+                String where = board.toFen() + " " + PackedMove.toString(move);
+                Assertions.assertTrue(StaticExchange.isAtLeast(board, move, value), where);
+                Assertions.assertFalse(StaticExchange.isAtLeast(board, move, value + 1), where);
+                Assertions.assertEquals(value >= 0, StaticExchange.isAtLeast(board, move, 0), where);
+            }
+            if (depth > 1) {
+                board.makeMove(move);
+                checkThresholds(board, color.opponent(), depth - 1);
+                board.unmakeMove();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Attackers of a square for one or both colors")
+    public void attackers() {
+        ChessBoard board = ChessBoard.fromFen("4k3/8/2p5/3p4/8/2N5/3R4/4K3");
+        int d5 = ChessBoard.square(ChessPosition.of(5, 4));
+        long white = board.attackersOf(d5, ChessGame.TeamColor.WHITE);
+        long black = board.attackersOf(d5, ChessGame.TeamColor.BLACK);
+        Assertions.assertEquals(2, Long.bitCount(white));
+        Assertions.assertEquals(1, Long.bitCount(black));
+        Assertions.assertEquals(white | black, board.attackersOf(d5));
+        Assertions.assertEquals(List.of(ChessPosition.of(6, 3)),
+                board.getAttackers(ChessPosition.of(5, 4), ChessGame.TeamColor.BLACK));
+    }
+
+    @Test
+    @DisplayName("Hanging pieces are the ones the opponent can win")
+    public void hangingPieces() {
+        // the pawn can take the undefended knight, and the rook the undefended pawn
+        ChessBoard board = ChessBoard.fromFen("4k3/8/8/3p4/4N3/8/8/3RK3");
+        Assertions.assertEquals(1L << ChessBoard.square(ChessPosition.of(4, 5)),
+                StaticExchange.hangingPieces(board, ChessGame.TeamColor.WHITE));
+        Assertions.assertEquals(1L << ChessBoard.square(ChessPosition.of(5, 4)),
+                StaticExchange.hangingPieces(board, ChessGame.TeamColor.BLACK));
+    }
+}
@@ -0,0 +1,84 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ZobristTests {
+
+    private static final String FEN = "r3k2r/1P6/8/3p4/4P3/8/6p1/R3K2R w KQkq - 0 1";
+
+    // the key straight from the piece placement, without the incremental updates
+    private static long recompute(ChessBoard board) {
+        long key = 0;
+        for (int square = 0; square < 64; square++) {
+            ChessPiece piece = board.getPiece(ChessPosition.fromSquare(square));
+            if (piece != null) {
+                key ^= Zobrist.pieceKey(piece.getTeamColor(), piece.getPieceType(), square);
+            }
+        }
+        return key;
+    }
+
+    @Test
+    @DisplayName("Incremental key matches a recompute after every make and unmake")
+    public void incrementalMatchesRecompute() {
+        ChessBoard board = ChessBoard.fromFen(FEN);
+        Assertions.assertEquals(recompute(board), board.getZobristKey());
+        walk(board, ChessGame.TeamColor.WHITE, 3);
+        Assertions.assertEquals(recompute(board), board.getZobristKey());
+    }
+
+    private static void walk(ChessBoard board, ChessGame.TeamColor color, int depth) {
+        if (depth == 0) {
+            return;
+        }
+        MoveList moves = new MoveList();
+        MoveGenerator.generateLegal(board, color, moves);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            board.makeMove(move);
+            Assertions.assertEquals(recompute(board), board.getZobristKey(), PackedMove.toString(move));
+            walk(board, color.opponent(), depth - 1);
+            board.unmakeMove();
+            Assertions.assertEquals(recompute(board), board.getZobristKey(), PackedMove.toString(move));
+        }
+    }
+
+    @Test
+    @DisplayName("Promotions, captures, movePiece and cloneBoard keep the key right")
+    public void specialMoves() {
+        ChessBoard board = ChessBoard.fromFen(FEN);
+        // b7xa8=N captures and promotes at once
+        board.movePiece(new ChessMove(ChessPosition.of(7, 2), ChessPosition.of(8, 1), ChessPiece.PieceType.KNIGHT));
+        Assertions.assertEquals(recompute(board), board.getZobristKey());
+        board.makeMove(new ChessMove(ChessPosition.of(2, 7), ChessPosition.of(1, 7), ChessPiece.PieceType.QUEEN));
+        Assertions.assertEquals(recompute(board), board.getZobristKey());
+        board.makeMove(new ChessMove(ChessPosition.of(4, 5), ChessPosition.of(5, 4), null));
+        Assertions.assertEquals(recompute(board), board.getZobristKey());
+
+        ChessBoard clone = board.cloneBoard();
+        Assertions.assertEquals(board.getZobristKey(), clone.getZobristKey());
+        clone.addPiece(ChessPosition.of(4, 4), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+        Assertions.assertEquals(recompute(clone), clone.getZobristKey());
+        Assertions.assertNotEquals(board.getZobristKey(), clone.getZobristKey());
+        Assertions.assertEquals(recompute(board), board.getZobristKey());
+
+        board.unmakeMove();
+        board.unmakeMove();
+        Assertions.assertEquals(recompute(board), board.getZobristKey());
+    }
+
+    @Test
+    @DisplayName("Game key adds the side to move and matches a game reached another way")
+    public void gameKey() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        Assertions.assertEquals(recompute(game.getBoard()), game.getZobristKey());
+        game.makeMove(new ChessMove(ChessPosition.of(1, 7), ChessPosition.of(3, 6), null));
+        Assertions.assertEquals(recompute(game.getBoard()) ^ Zobrist.sideToMoveKey(), game.getZobristKey());
+        game.makeMove(new ChessMove(ChessPosition.of(8, 7), ChessPosition.of(6, 6), null));
+        game.makeMove(new ChessMove(ChessPosition.of(3, 6), ChessPosition.of(1, 7), null));
+        game.makeMove(new ChessMove(ChessPosition.of(6, 6), ChessPosition.of(8, 7), null));
+        Assertions.assertEquals(new ChessGame().getZobristKey(), game.getZobristKey());
+    }
+}
@@ -0,0 +1,279 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.MoveGenerator;
+import chess.MoveList;
+import chess.PackedMove;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+public class EngineTests {
+
+    @Test
+    @DisplayName("Finds a back rank mate in one")
+    public void mateInOne() {
+        try (Engine engine = new Engine(1)) {
+            SearchResult result = engine.search(ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1"),
+                    SearchLimits.depth(4));
+            Assertions.assertEquals("a1a8", PackedMove.toString(result.move()));
+            Assertions.assertTrue(result.isMate());
+            Assertions.assertEquals(1, result.mateIn());
+        }
+    }
+
+    @Test
+    @DisplayName("Finds a mate in two")
+    public void mateInTwo() {
+        // rook ladder: 1. Ra7 Kg8 2. Rb8#
+        try (Engine engine = new Engine(1)) {
+            SearchResult result = engine.search(ChessGame.fromFen("7k/8/8/8/8/8/R7/1R4K1 w - - 0 1"),
+                    SearchLimits.depth(6));
+            Assertions.assertTrue(result.isMate(), result.toString());
+            Assertions.assertEquals(2, result.mateIn(), result.toString());
+        }
+    }
+
+    @Test
+    @DisplayName("Takes a hanging queen")
+    public void winsMaterial() {
+        try (Engine engine = new Engine(1)) {
+            SearchResult result = engine.search(ChessGame.fromFen("4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1"),
+                    SearchLimits.depth(4));
+            Assertions.assertEquals("d2d5", PackedMove.toString(result.move()));
+            Assertions.assertTrue(result.score() > 400, result.toString());
+        }
+    }
+
+    @Test
+    @DisplayName("Does not take a defended pawn with the queen")
+    public void avoidsLosingCapture() {
+        try (Engine engine = new Engine(1)) {
+            SearchResult result = engine.search(ChessGame.fromFen("4k3/8/2p5/3p4/8/8/3Q4/4K3 w - - 0 1"),
+                    SearchLimits.depth(3));
+            Assertions.assertNotEquals("d2d5", PackedMove.toString(result.move()));
+        }
+    }
+
+    @Test
+    @DisplayName("A mated or stalemated side has no move")
+    public void noLegalMoves() {
+        try (Engine engine = new Engine(1)) {
+            SearchResult mated = engine.search(ChessGame.fromFen("R5k1/5ppp/8/8/8/8/8/6K1 b - - 0 1"),
+                    SearchLimits.depth(3));
+            Assertions.assertEquals(PackedMove.NONE, mated.move());
+            Assertions.assertNull(mated.bestMove());
+            Assertions.assertEquals(-Search.MATE, mated.score());
+
+            SearchResult stalemate = engine.search(ChessGame.fromFen("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1"),
+                    SearchLimits.depth(3));
+            Assertions.assertEquals(PackedMove.NONE, stalemate.move());
+            Assertions.assertEquals(0, stalemate.score());
+        }
+    }
+
+    @Test
+    @DisplayName("Stops at the node limit")
+    public void nodeLimit() {
+        try (Engine engine = new Engine(1)) {
+            SearchResult result = engine.search(new ChessGame(), SearchLimits.nodes(20_000));
+            Assertions.assertNotEquals(PackedMove.NONE, result.move());
+            Assertions.assertTrue(result.nodes() < 20_000 + 1024, result.toString());
+        }
+    }
+
+    @Test
+    @DisplayName("Stops at the time limit")
+    public void timeLimit() {
+        try (Engine engine = new Engine()) {
+            // an unlimited search would never return; the generous timeout allows for a slow machine
+            SearchResult result = Assertions.assertTimeoutPreemptively(Duration.ofSeconds(10),
+                    () -> engine.search(new ChessGame(), SearchLimits.millis(100)));
+            Assertions.assertTrue(isLegalAtStart(result.move()), result.toString());
+        }
+    }
+
+    private static boolean isLegalAtStart(int move) {
+        return move != PackedMove.NONE
+                && MoveGenerator.isLegal(new ChessGame().getBoard(), ChessGame.TeamColor.WHITE, move);
+    }
+
+    @Test
+    @DisplayName("A cancelled search returns its best move so far")
+    public void cancel() throws InterruptedException {
+        try (Engine engine = new Engine()) {
+            SearchHandle handle = engine.start(new ChessGame(), SearchLimits.INFINITE);
+            Thread.sleep(50);
+            Assertions.assertFalse(handle.isDone());
+            handle.cancel();
+            SearchResult result = handle.get();
+            Assertions.assertNotEquals(PackedMove.NONE, result.move());
+            Assertions.assertTrue(handle.isDone());
+        }
+    }
+
+    @Test
+    @DisplayName("Fixed depth searches are repeatable")
+    public void deterministic() {
+        ChessGame game = ChessGame.fromFen("r1bqkbnr/1ppp1ppp/p1n5/1B2p3/4P3/5N2/PPPP1PPP/RNBQK2R w - - 0 4");
+        try (Engine engine = new Engine(4); Engine other = new Engine(4)) {
+            SearchResult first = engine.search(game, SearchLimits.depth(5));
+            SearchResult second = other.search(game, SearchLimits.depth(5));
+            Assertions.assertEquals(first.move(), second.move());
+            Assertions.assertEquals(first.score(), second.score());
+            Assertions.assertEquals(first.nodes(), second.nodes());
+        }
+    }
+
+    @Test
+    @DisplayName("Table entries come back only for their own key")
+    public void tableVerifiesKeys() {
+        TranspositionTable table = new TranspositionTable(1);
+        long key = 0x123456789ABCDEF0L;
+        int move = PackedMove.parse("e2e4");
+        table.store(key, move, -250, 7, TranspositionTable.LOWER);
+
+        long entry = table.probe(key);
+        Assertions.assertEquals(move, TranspositionTable.move(entry));
+        Assertions.assertEquals(-250, TranspositionTable.score(entry));
+        Assertions.assertEquals(7, TranspositionTable.depth(entry));
+        Assertions.assertEquals(TranspositionTable.LOWER, TranspositionTable.bound(entry));
+        // same slot, different position
+        Assertions.assertEquals(0, table.probe(key ^ 1L << 40));
+
+        // a shallower search of another position does not evict a deeper one
+        table.store(key ^ 1L << 40, move, 0, 3, TranspositionTable.EXACT);
+        Assertions.assertEquals(7, TranspositionTable.depth(table.probe(key)));
+    }
+
+    @Test
+    @DisplayName("Buckets keep the deepest entry of the current search and the latest one")
+    public void tableBuckets() {
+        TranspositionTable table = new TranspositionTable(1);
+        long deep = 0x1000000000000042L;
+        long shallow = 0x2000000000000042L;
+        long newest = 0x3000000000000042L;
+        table.store(deep, PackedMove.NONE, 10, 9, TranspositionTable.EXACT);
+        table.store(shallow, PackedMove.NONE, 20, 2, TranspositionTable.EXACT);
+        Assertions.assertEquals(9, TranspositionTable.depth(table.probe(deep)));
+        Assertions.assertEquals(2, TranspositionTable.depth(table.probe(shallow)));
+
+        // the always-replace entry takes the next shallow result
+        table.store(newest, PackedMove.NONE, 30, 1, TranspositionTable.EXACT);
+        Assertions.assertEquals(0, table.probe(shallow));
+        Assertions.assertEquals(30, TranspositionTable.score(table.probe(newest)));
+
+        // in a later search, an old deep entry gives way
+        table.newSearch();
+        table.store(shallow, PackedMove.NONE, 20, 2, TranspositionTable.EXACT);
+        Assertions.assertEquals(0, table.probe(deep));
+        Assertions.assertEquals(2, TranspositionTable.depth(table.probe(shallow)));
+
+        table.clear();
+        Assertions.assertEquals(0, table.probe(shallow));
+        Assertions.assertEquals(1024 * 1024, table.sizeInBytes());
+    }
+
+    @Test
+    @DisplayName("Parallel search finds the same mate")
+    public void parallelMate() {
+        try (Engine engine = new Engine(4, 4)) {
+            SearchResult result = engine.search(ChessGame.fromFen("7k/8/8/8/8/8/R7/1R4K1 w - - 0 1"),
+                    SearchLimits.depth(6));
+            Assertions.assertEquals(2, result.mateIn(), result.toString());
+        }
+    }
+
+    @Test
+    @DisplayName("Parallel search counts every thread's nodes and can be cancelled")
+    public void parallelCancel() throws InterruptedException {
+        try (Engine engine = new Engine(4, 3)) {
+            SearchResult timed = Assertions.assertTimeoutPreemptively(Duration.ofSeconds(10),
+                    () -> engine.search(new ChessGame(), SearchLimits.millis(100)));
+            Assertions.assertTrue(isLegalAtStart(timed.move()), timed.toString());
+
+            // the main thread spends the budget and the helpers' nodes are counted on top
+            SearchResult budget = engine.search(new ChessGame(), SearchLimits.nodes(50_000));
+            Assertions.assertTrue(isLegalAtStart(budget.move()), budget.toString());
+            Assertions.assertTrue(budget.nodes() >= 50_000, budget.toString());
+
+            SearchHandle handle = engine.start(new ChessGame(), SearchLimits.INFINITE);
+            Thread.sleep(50);
+            handle.cancel();
+            SearchResult cancelled = Assertions.assertTimeoutPreemptively(Duration.ofSeconds(10), handle::get);
+            Assertions.assertTrue(isLegalAtStart(cancelled.move()), cancelled.toString());
+        }
+    }
+
+    @Test
+    @DisplayName("Closing an engine stops its helper threads")
+    public void close() throws InterruptedException {
+        Engine engine = new Engine(1, 3);
+        engine.search(new ChessGame(), SearchLimits.depth(3));
+        Assertions.assertTrue(helperThreads() > 0);
+        engine.close();
+        engine.close();
+        for (int i = 0; i < 100 && helperThreads() > 0; i++) {
+            Thread.sleep(10);
+        }
+        Assertions.assertEquals(0, helperThreads());
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> engine.search(new ChessGame(), SearchLimits.depth(1)));
+    }
+
+    private static long helperThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals("chess-search-helper") && thread.isAlive())
+                .count();
+    }
+
+    @Test
+    @DisplayName("Incremental evaluation matches a full rescan through make and unmake")
+    public void incrementalEvaluation() {
+        for (String fen : new String[]{
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w - - 0 1",
+                // promotions and captures with promotion on the first ply
+                "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w - - 0 1"}) {
+            ChessGame game = ChessGame.fromFen(fen);
+            ChessBoard board = game.getBoard().cloneBoard();
+            IncrementalEvaluation evaluation = new IncrementalEvaluation();
+            evaluation.reset(board);
+            checkEvaluation(board, game.getTeamTurn(), evaluation, 3);
+            Assertions.assertEquals(Evaluation.evaluate(board, game.getTeamTurn()),
+                    evaluation.evaluate(board, game.getTeamTurn()));
+        }
+    }
+
+    private static void checkEvaluation(ChessBoard board, ChessGame.TeamColor color,
+                                        IncrementalEvaluation evaluation, int depth) {
+        Assertions.assertEquals(Evaluation.evaluate(board, color), evaluation.evaluate(board, color), board.toFen());
+        if (depth == 0) {
+            return;
+        }
+        MoveList moves = new MoveList();
+        MoveGenerator.generateLegal(board, color, moves);
+        for (int i = 0; i < moves.size(); i++) {
+            evaluation.makeMove(board, moves.get(i));
+            board.makeMove(moves.get(i));
+            checkEvaluation(board, color.opponent(), evaluation, depth - 1);
+            board.unmakeMove();
+            evaluation.unmakeMove();
+        }
+    }
+
+    @Test
+    @DisplayName("Evaluation is symmetric between the colors")
+    public void evaluationSymmetry() {
+        // the same position with the board flipped and the colors swapped
+        ChessGame white = ChessGame.fromFen("r1bqkbnr/1ppp1ppp/p1n5/1B2p3/4P3/5N2/PPPP1PPP/RNBQK2R w - - 0 4");
+        ChessGame black = ChessGame.fromFen("rnbqk2r/pppp1ppp/5n2/4p3/1b2P3/P1N5/1PPP1PPP/R1BQKBNR b - - 0 4");
+        Assertions.assertEquals(Evaluation.evaluate(white.getBoard(), ChessGame.TeamColor.WHITE),
+                Evaluation.evaluate(black.getBoard(), ChessGame.TeamColor.BLACK));
+        // an endgame king belongs in the center
+        Assertions.assertTrue(Evaluation.evaluate(ChessBoard.fromFen("8/8/8/4k3/8/8/8/K7"), ChessGame.TeamColor.BLACK)
+                > Evaluation.evaluate(ChessBoard.fromFen("k7/8/8/8/8/8/8/4K3"), ChessGame.TeamColor.BLACK));
+    }
+}
@@ -0,0 +1,126 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.PackedMove;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+public class OpeningBookTests {
+
+    @TempDir
+    Path directory;
+
+    private OpeningBook writeBook(String... games) throws IOException {
+        OpeningBook.Builder builder = new OpeningBook.Builder();
+        for (String game : games) {
+            builder.addGame(game, 8);
+        }
+        Path file = directory.resolve("book.bin");
+        builder.write(file);
+        return OpeningBook.open(file);
+    }
+
+    @Test
+    @DisplayName("Looks up weighted moves by position")
+    public void entries() throws IOException {
+        OpeningBook book = writeBook("e2e4 e7e5 g1f3", "e2e4 c7c5", "d2d4 d7d5");
+        Assertions.assertEquals(6, book.size());
+
+        List<OpeningBook.Entry> start = book.entries(new ChessGame());
+        Assertions.assertEquals(List.of(new OpeningBook.Entry(PackedMove.parse("e2e4"), 2),
+                new OpeningBook.Entry(PackedMove.parse("d2d4"), 1)), start);
+
+        ChessGame game = ChessGame.fromFen("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1");
+        Assertions.assertEquals(2, book.entries(game).size());
+        Assertions.assertTrue(book.entries(ChessGame.fromFen("4k3/8/8/8/8/8/8/4K3 w - - 0 1")).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Chooses every book move in proportion to its weight")
+    public void choose() throws IOException {
+        OpeningBook book = writeBook("e2e4", "e2e4", "e2e4", "d2d4");
+        ChessGame game = new ChessGame();
+        int e4 = 0;
+        Set<Integer> chosen = new HashSet<>();
+        for (long random = 0; random < 400; random++) {
+            int move = book.choose(game, random);
+            chosen.add(move);
+            if (move == PackedMove.parse("e2e4")) {
+                e4++;
+            }
+        }
+        Assertions.assertEquals(Set.of(PackedMove.parse("e2e4"), PackedMove.parse("d2d4")), chosen);
+        Assertions.assertEquals(300, e4);
+        Assertions.assertEquals(PackedMove.NONE, book.choose(ChessGame.fromFen("4k3/8/8/8/8/8/8/4K3 w - - 0 1"), 1));
+    }
+
+    @Test
+    @DisplayName("The engine plays from the book before searching")
+    public void engineUsesBook() throws IOException {
+        try (Engine engine = new Engine(1)) {
+            engine.setOpeningBook(writeBook("g1f3 g8f6"));
+
+            SearchResult result = engine.search(new ChessGame(), SearchLimits.depth(4));
+            Assertions.assertEquals("g1f3", PackedMove.toString(result.move()));
+            Assertions.assertEquals(0, result.depth());
+            Assertions.assertEquals(0, result.nodes());
+            Assertions.assertEquals("g1f3", PackedMove.toString(engine.start(new ChessGame(), SearchLimits.INFINITE)
+                    .get().move()));
+
+            // out of book the engine searches as usual
+            SearchResult searched = engine.search(ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1"),
+                    SearchLimits.depth(4));
+            Assertions.assertEquals("a1a8", PackedMove.toString(searched.move()));
+            Assertions.assertTrue(searched.nodes() > 0);
+        }
+    }
+
+    @Test
+    @DisplayName("A seeded engine picks the same book moves every time")
+    public void seededPicks() throws IOException {
+        OpeningBook book = writeBook("e2e4", "d2d4", "c2c4", "g1f3");
+        try (Engine first = new Engine(1); Engine second = new Engine(1)) {
+            first.setOpeningBook(book, new SplittableRandom(7));
+            second.setOpeningBook(book, new SplittableRandom(7));
+            for (int i = 0; i < 20; i++) {
+                Assertions.assertEquals(first.search(new ChessGame(), SearchLimits.depth(1)).move(),
+                        second.search(new ChessGame(), SearchLimits.depth(1)).move());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Rejects a file that is not a book")
+    public void corruptFile() throws IOException {
+        Path file = directory.resolve("not-a-book.bin");
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9});
+        Assertions.assertThrows(IllegalArgumentException.class, () -> OpeningBook.open(file));
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new OpeningBook.Builder().addGame("e2e4 e2e4", 8));
+    }
+
+    @Test
+    @DisplayName("Weights must fit the file and add up to at most the maximum")
+    public void weights() throws IOException {
+        int e4 = PackedMove.parse("e2e4");
+        OpeningBook.Builder builder = new OpeningBook.Builder();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> builder.add(new ChessGame(), e4, -1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> builder.add(new ChessGame(), e4, 0x10000));
+
+        builder.add(new ChessGame(), e4, 0xFFFF).add(new ChessGame(), e4, 10);
+        Path file = directory.resolve("weights.bin");
+        builder.write(file);
+        Assertions.assertEquals(List.of(new OpeningBook.Entry(e4, 0xFFFF)), OpeningBook.open(file).entries(new ChessGame()));
+    }
+}
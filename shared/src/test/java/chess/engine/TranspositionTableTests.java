@@ -0,0 +1,47 @@
+package chess.engine;
+
+import chess.PackedMove;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TranspositionTableTests {
+
+    @Test
+    @DisplayName("Stores and probes an entry")
+    public void storeAndProbe() {
+        TranspositionTable table = new TranspositionTable(1);
+        long key = 0x1234_5678_9ABC_DEF0L;
+        int move = PackedMove.parse("e2e4");
+        table.store(key, move, -35, 7, TranspositionTable.LOWER);
+
+        long data = table.probe(key);
+        Assertions.assertEquals(move, TranspositionTable.move(data));
+        Assertions.assertEquals(-35, TranspositionTable.score(data));
+        Assertions.assertEquals(7, TranspositionTable.depth(data));
+        Assertions.assertEquals(TranspositionTable.LOWER, TranspositionTable.bound(data));
+        Assertions.assertEquals(0, table.probe(key + 1));
+        table.close();
+    }
+
+    @Test
+    @DisplayName("A table built from a closed table's memory starts empty")
+    public void reusedAfterClose() {
+        long key = 0x0FED_CBA9_8765_4321L;
+        TranspositionTable first = new TranspositionTable(1);
+        first.store(key, PackedMove.parse("d2d4"), 12, 3, TranspositionTable.EXACT);
+        first.close();
+        first.close();
+
+        TranspositionTable second = new TranspositionTable(1);
+        TranspositionTable third = new TranspositionTable(1);
+        Assertions.assertEquals(0, second.probe(key));
+        Assertions.assertEquals(0, third.probe(key));
+
+        // closing twice must not hand the same memory to both tables
+        second.store(key, PackedMove.parse("d2d4"), 12, 3, TranspositionTable.EXACT);
+        Assertions.assertEquals(0, third.probe(key));
+        second.close();
+        third.close();
+    }
+}
@@ -0,0 +1,95 @@
+package chess.perft;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.Fen;
+import chess.MoveGenerator;
+import chess.MoveList;
+import chess.PackedMove;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+public class PerftTests {
+
+    @Test
+    @DisplayName("Move list generator matches the reference suite")
+    public void moveListSuite() {
+        for (Perft.Position position : Perft.SUITE) {
+            ChessGame game = Fen.parse(position.fen());
+            for (int depth = 1; depth <= Math.min(4, position.maxDepth()); depth++) {
+                Assertions.assertEquals(position.nodes()[depth - 1], Perft.MOVE_LIST.count(game, depth),
+                        position.name() + " depth " + depth);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("All generators agree")
+    public void generatorsAgree() {
+        for (Perft.Position position : Perft.SUITE) {
+            ChessGame game = Fen.parse(position.fen());
+            for (PerftGenerator generator : Perft.GENERATORS) {
+                Assertions.assertEquals(position.nodes()[2], generator.count(game, 3),
+                        generator.name() + " on " + position.name());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Parallel perft with a shared hash table matches the suite")
+    public void parallelHashed() {
+        var pool = new ForkJoinPool(4);
+        var perft = new ParallelPerft(pool, 2, new PerftHashTable(16));
+        for (Perft.Position position : Perft.SUITE) {
+            ChessGame game = Fen.parse(position.fen());
+            for (int depth = 1; depth <= Math.min(4, position.maxDepth()); depth++) {
+                Assertions.assertEquals(position.nodes()[depth - 1], perft.count(game, depth),
+                        position.name() + " depth " + depth);
+            }
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    @DisplayName("Divide sums to the perft count")
+    public void divideSums() {
+        ChessGame game = Fen.parse(Perft.SUITE.get(1).fen());
+        long total = Perft.divide(Perft.MOVE_LIST, game, 3).values().stream().mapToLong(Long::longValue).sum();
+        Assertions.assertEquals(Perft.MOVE_LIST.count(game, 3), total);
+    }
+
+    @Test
+    @DisplayName("Captures and quiet moves together are exactly the legal moves")
+    public void capturesAndQuietsSplitLegalMoves() {
+        for (Perft.Position position : Perft.SUITE) {
+            ChessGame game = Fen.parse(position.fen());
+            checkSplit(game.getBoard().cloneBoard(), game.getTeamTurn(), 3);
+        }
+    }
+
+    private static void checkSplit(ChessBoard board, ChessGame.TeamColor color, int depth) {
+        MoveList all = new MoveList();
+        MoveList split = new MoveList();
+        MoveGenerator.generateLegal(board, color, all);
+        MoveGenerator.generateLegalCaptures(board, color, split);
+        int captures = split.size();
+        for (int i = 0; i < captures; i++) {
+            Assertions.assertTrue(PackedMove.isCapture(split.get(i)) || PackedMove.isPromotion(split.get(i)));
+        }
+        MoveGenerator.generateLegalQuiets(board, color, split);
+        Assertions.assertEquals(all.size(), split.size(), board.toFen());
+        for (int i = 0; i < all.size(); i++) {
+            Assertions.assertTrue(split.contains(all.get(i)), board.toFen());
+        }
+        if (depth > 1) {
+            for (int i = 0; i < all.size(); i++) {
+                board.makeMove(all.get(i));
+                checkSplit(board, color.opponent(), depth - 1);
+                board.unmakeMove();
+            }
+        }
+    }
+}
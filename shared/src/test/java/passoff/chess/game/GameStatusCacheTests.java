@@ -0,0 +1,90 @@
+package passoff.chess.game;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.GameCodec;
+import chess.InvalidMoveException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import serialization.Serializer;
+
+public class GameStatusCacheTests {
+
+    // fool's mate, white to move and mated
+    private static final String MATED = "rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3";
+
+    private static ChessGame foolsMate() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(ChessPosition.of(2, 6), ChessPosition.of(3, 6), null));
+        game.makeMove(new ChessMove(ChessPosition.of(7, 5), ChessPosition.of(5, 5), null));
+        game.makeMove(new ChessMove(ChessPosition.of(2, 7), ChessPosition.of(4, 7), null));
+        game.makeMove(new ChessMove(ChessPosition.of(8, 4), ChessPosition.of(4, 8), null));
+        return game;
+    }
+
+    @Test
+    @DisplayName("makeMove leaves the status of the new position cached")
+    public void cachedAfterMove() throws InvalidMoveException {
+        ChessGame game = foolsMate();
+        Assertions.assertEquals(ChessGame.GameStatus.CHECKMATE, game.getGameStatus());
+        Assertions.assertSame(game.getGameStatus(), game.getGameStatus());
+        Assertions.assertTrue(game.isInCheckmate(ChessGame.TeamColor.WHITE));
+        Assertions.assertThrows(InvalidMoveException.class, () -> game.makeMove(
+                new ChessMove(ChessPosition.of(2, 1), ChessPosition.of(3, 1), null)));
+    }
+
+    @Test
+    @DisplayName("A stored status is trusted, not recomputed, until the position changes")
+    public void storedStatusIsReused() {
+        byte[] bytes = GameCodec.encode(new ChessGame());
+        // byte 2 is the status ordinal; claim check in the start position
+        bytes[2] = (byte) ChessGame.GameStatus.CHECK.ordinal();
+        ChessGame game = GameCodec.decode(bytes);
+        Assertions.assertEquals(ChessGame.GameStatus.CHECK, game.getGameStatus());
+
+        // a change made through the board is noticed and the status worked out again
+        game.getBoard().addPiece(ChessPosition.of(3, 1),
+                ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
+        Assertions.assertEquals(ChessGame.GameStatus.NORMAL, game.getGameStatus());
+    }
+
+    @Test
+    @DisplayName("Status follows setBoard and setTeamTurn")
+    public void followsSetters() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        Assertions.assertEquals(ChessGame.GameStatus.NORMAL, game.getGameStatus());
+
+        game.setBoard(foolsMate().getBoard());
+        Assertions.assertEquals(ChessGame.GameStatus.CHECKMATE, game.getGameStatus());
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        Assertions.assertEquals(ChessGame.GameStatus.NORMAL, game.getGameStatus());
+        game.setTeamTurn(ChessGame.TeamColor.WHITE);
+        Assertions.assertEquals(ChessGame.GameStatus.CHECKMATE, game.getGameStatus());
+
+        game.setBoard(new ChessGame().getBoard());
+        Assertions.assertEquals(ChessGame.GameStatus.NORMAL, game.getGameStatus());
+    }
+
+    @Test
+    @DisplayName("Status survives storing and reloading the game")
+    public void survivesReload() throws InvalidMoveException {
+        ChessGame game = foolsMate();
+        Assertions.assertEquals(MATED, game.toFen());
+
+        ChessGame decoded = GameCodec.decode(GameCodec.encode(game));
+        Assertions.assertEquals(ChessGame.GameStatus.CHECKMATE, decoded.getGameStatus());
+
+        String json = Serializer.GSON.toJson(game);
+        Assertions.assertTrue(json.contains("\"status\":\"CHECKMATE\""), json);
+        Assertions.assertEquals(ChessGame.GameStatus.CHECKMATE,
+                Serializer.GSON.fromJson(json, ChessGame.class).getGameStatus());
+
+        ChessGame check = ChessGame.fromFen("4k3/8/8/8/8/8/8/R3K3 b - - 0 1");
+        Assertions.assertEquals(ChessGame.GameStatus.NORMAL, check.getGameStatus());
+        check = ChessGame.fromFen("R3k3/8/8/8/8/8/8/4K3 b - - 0 1");
+        Assertions.assertEquals(ChessGame.GameStatus.CHECK, GameCodec.decode(GameCodec.encode(check)).getGameStatus());
+    }
+}
@@ -0,0 +1,79 @@
+package serialization;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import com.google.gson.JsonParseException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import websocket.messages.ServerMessage;
+
+public class SerializerTests {
+
+    @Test
+    @DisplayName("Game round trip")
+    public void gameRoundTrip() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+        game.setWinner("someone");
+
+        String json = Serializer.GSON.toJson(game);
+        ChessGame copy = Serializer.GSON.fromJson(json, ChessGame.class);
+        Assertions.assertEquals(game, copy);
+        Assertions.assertEquals(game.toFen(), copy.toFen());
+        Assertions.assertEquals(game.getMoveHistory(), copy.getMoveHistory());
+        Assertions.assertEquals("someone", copy.getWinner());
+        Assertions.assertTrue(json.length() < 200, json);
+    }
+
+    @Test
+    @DisplayName("Move keeps its field-by-field shape")
+    public void moveShape() {
+        ChessMove move = new ChessMove(ChessPosition.of(7, 1), ChessPosition.of(8, 1), ChessPiece.PieceType.QUEEN);
+        String json = Serializer.GSON.toJson(move);
+        Assertions.assertEquals("{\"startPosition\":{\"row\":7,\"col\":1},\"endPosition\":{\"row\":8,\"col\":1},"
+                + "\"promotionPiece\":\"QUEEN\"}", json);
+        Assertions.assertEquals(move, Serializer.GSON.fromJson(json, ChessMove.class));
+    }
+
+    @Test
+    @DisplayName("Load game message round trip")
+    public void loadGameMessage() {
+        String json = Serializer.GSON.toJson(ServerMessage.loadGame(new ChessGame()));
+        ServerMessage msg = Serializer.GSON.fromJson(json, ServerMessage.class);
+        Assertions.assertEquals(ServerMessage.ServerMessageType.LOAD_GAME, msg.getServerMessageType());
+        Assertions.assertEquals(new ChessGame(), msg.getGame());
+    }
+
+    @Test
+    @DisplayName("Older field-by-field games still load")
+    public void legacyGame() {
+        String empty = "[null,null,null,null,null,null,null,null]";
+        String board = "[[null,null,null,null,{\"pieceColor\":\"WHITE\",\"type\":\"KING\"},null,null,null],"
+                + (empty + ",").repeat(6)
+                + "[null,null,null,null,{\"pieceColor\":\"BLACK\",\"type\":\"KING\"},null,null,null]]";
+        String json = "{\"board\":{\"board\":" + board + "},"
+                + "\"turn\":\"BLACK\",\"gameLog\":[{\"startPosition\":{\"row\":2,\"col\":5},"
+                + "\"endPosition\":{\"row\":1,\"col\":5}}],\"gameOver\":false,\"statusKey\":7}";
+        ChessGame game = Serializer.GSON.fromJson(json, ChessGame.class);
+        Assertions.assertEquals("4k3/8/8/8/8/8/8/4K3", game.getBoard().toFen());
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+        Assertions.assertEquals(1, game.getMoveHistory().size());
+        Assertions.assertEquals(ChessGame.GameStatus.NORMAL, game.getGameStatus());
+    }
+
+    @Test
+    @DisplayName("A piece without a color or type is rejected")
+    public void incompletePiece() {
+        Assertions.assertEquals(ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK),
+                Serializer.GSON.fromJson("{\"pieceColor\":\"BLACK\",\"type\":\"ROOK\"}", ChessPiece.class));
+        JsonParseException e = Assertions.assertThrows(JsonParseException.class,
+                () -> Serializer.GSON.fromJson("{\"pieceColor\":\"BLACK\"}", ChessPiece.class));
+        Assertions.assertTrue(e.getMessage().contains("type"), e.getMessage());
+        Assertions.assertThrows(JsonParseException.class,
+                () -> Serializer.GSON.fromJson("{\"board\":{\"board\":[[{\"type\":\"KING\"}]]}}", ChessGame.class));
+    }
+}